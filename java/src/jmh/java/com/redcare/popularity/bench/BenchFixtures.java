@@ -0,0 +1,37 @@
+package com.redcare.popularity.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.popularity.client.GitHubSearchPayloads;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared inputs: realistic search bodies and the same page decoded once, so every benchmark scores identical data.
+ */
+final class BenchFixtures {
+    private BenchFixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    static byte[] payload(int size) {
+        return GitHubSearchPayloads.page(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static GitHubSearchResponse decodedPage(int size) {
+        try {
+            return objectMapper().readValue(payload(size), GitHubSearchResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.redcare.popularity.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plain TCP relay in front of the stub server that counts accepted connections and bytes sent back to the client,
+ * so transports can be compared on what actually crosses the wire regardless of what they report themselves.
+ */
+final class CountingProxy implements AutoCloseable {
+    private final ServerSocket server;
+    private final int upstreamPort;
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder bytesToClient = new LongAdder();
+
+    CountingProxy(int upstreamPort) throws IOException {
+        this.upstreamPort = upstreamPort;
+        this.server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        daemon(this::acceptLoop, "proxy-accept").start();
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    long connections() {
+        return connections.sum();
+    }
+
+    long bytesToClient() {
+        return bytesToClient.sum();
+    }
+
+    void reset() {
+        connections.reset();
+        bytesToClient.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                Socket upstream = new Socket(InetAddress.getLoopbackAddress(), upstreamPort);
+                connections.increment();
+                daemon(() -> pump(client, upstream, null), "proxy-up").start();
+                daemon(() -> pump(upstream, client, bytesToClient), "proxy-down").start();
+            } catch (IOException ex) {
+                if (server.isClosed()) return;
+            }
+        }
+    }
+
+    private static void pump(Socket from, Socket to, LongAdder counter) {
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                out.flush();
+                if (counter != null) counter.add(n);
+            }
+        } catch (IOException ignored) {
+            // peer closed
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,55 @@
+package com.redcare.popularity.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redcare.popularity.client.GitHubSearchStreamingDecoder;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of realistic search bodies (full REST item shape, ~6 KB per item) with Jackson data binding
+ * and with the streaming decoder the Feign client uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DecodingBenchmark {
+
+    @Param({"20", "100"})
+    public int perPage;
+
+    private final ObjectMapper objectMapper = BenchFixtures.objectMapper();
+    private final GitHubSearchStreamingDecoder streaming = new GitHubSearchStreamingDecoder(objectMapper.getFactory(), null);
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = BenchFixtures.payload(perPage);
+    }
+
+    @Benchmark
+    public GitHubSearchResponse dataBinding() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(payload), GitHubSearchResponse.class);
+    }
+
+    @Benchmark
+    public GitHubSearchResponse streaming() throws IOException {
+        return streaming.read(new ByteArrayInputStream(payload));
+    }
+}
@@ -0,0 +1,92 @@
+package com.redcare.popularity.bench;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.domain.PopularityResult;
+import com.redcare.popularity.domain.RepositoryScore;
+import com.redcare.popularity.mapper.Mappers;
+import com.redcare.popularity.service.PopularityRanker;
+import com.redcare.popularity.service.ScoringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream-to-DTO mapping per page: the individual {@link Mappers} steps, the whole score-map-sort chain they formed,
+ * and the single-pass {@link PopularityRanker} that replaced that chain on the request path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+    @Param({"20", "100"})
+    public int perPage;
+
+    private final ScoringService scoringService = new ScoringService();
+    private final PopularityRanker ranker = new PopularityRanker(scoringService);
+    private GitHubSearchResponse page;
+    private double[] scores;
+    private PopularityResult result;
+
+    @Setup
+    public void setUp() {
+        page = BenchFixtures.decodedPage(perPage);
+        List<GitHubRepoItem> items = page.items();
+        scores = new double[items.size()];
+        for (int i = 0; i < scores.length; i++) {
+            GitHubRepoItem it = items.get(i);
+            scores[i] = scoringService.computeScore(it.stargazersCount(), it.forksCount(), it.updatedAt());
+        }
+        result = new PopularityResult(page.totalCount(), toRepositoryScores());
+    }
+
+    @Benchmark
+    public List<RepositoryScore> toRepositoryScore() {
+        return toRepositoryScores();
+    }
+
+    @Benchmark
+    public PopularityResponse toPopularityResponse() {
+        return Mappers.toPopularityResponse(result);
+    }
+
+    @Benchmark
+    public PopularityResponse mappingChain() {
+        List<RepositoryScore> items = page.items().stream()
+                .map(it -> Mappers.toRepositoryScore(it, scoringService.computeScore(it.stargazersCount(), it.forksCount(), it.updatedAt())))
+                .sorted(Comparator.comparingDouble(RepositoryScore::score).reversed())
+                .toList();
+        return Mappers.toPopularityResponse(new PopularityResult(page.totalCount(), items));
+    }
+
+    @Benchmark
+    public PopularityResponse rankPage() {
+        return ranker.rank(page);
+    }
+
+    private List<RepositoryScore> toRepositoryScores() {
+        List<GitHubRepoItem> items = page.items();
+        RepositoryScore[] mapped = new RepositoryScore[items.size()];
+        for (int i = 0; i < mapped.length; i++) {
+            mapped[i] = Mappers.toRepositoryScore(items.get(i), scores[i]);
+        }
+        return List.of(mapped);
+    }
+}
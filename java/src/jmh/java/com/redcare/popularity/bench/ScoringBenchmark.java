@@ -0,0 +1,111 @@
+package com.redcare.popularity.bench;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.service.ScoringFunction;
+import com.redcare.popularity.service.ScoringProfile;
+import com.redcare.popularity.service.ScoringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ScoringBenchmark {
+
+    private final ScoringService scoringService = new ScoringService();
+    private final ScoringFunction builtIn = ScoringProfile.BUILT_IN.compile("built-in");
+    private final ScoringFunction logExponential = new ScoringProfile(0.5, 0.3, 0.2,
+            ScoringProfile.Transform.LOG, ScoringProfile.Transform.LOG, 90.0, ScoringProfile.Decay.EXPONENTIAL)
+            .compile("log-exponential");
+    private final long now = System.currentTimeMillis() / 1000;
+    private List<GitHubRepoItem> items;
+    private int[] stars;
+    private int[] forks;
+    private long[] updated;
+    private double[] scores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        items = BenchFixtures.decodedPage(100).items();
+        stars = new int[items.size()];
+        forks = new int[items.size()];
+        updated = new long[items.size()];
+        scores = new double[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            stars[i] = items.get(i).stargazersCount();
+            forks[i] = items.get(i).forksCount();
+            updated[i] = items.get(i).updatedAt().toEpochSecond();
+        }
+    }
+
+    /** One score; cycles through the page so the JIT cannot fold a constant input. */
+    @Benchmark
+    public double computeScore() {
+        GitHubRepoItem it = items.get(next++ % items.size());
+        return scoringService.computeScore(it.stargazersCount(), it.forksCount(), it.updatedAt());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void computeScorePage(Blackhole bh) {
+        for (GitHubRepoItem it : items) {
+            bh.consume(scoringService.computeScore(it.stargazersCount(), it.forksCount(), it.updatedAt()));
+        }
+    }
+
+    /** Batch kernel on pre-extracted columns: one clock read per page, no date arithmetic. */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public double[] computeScoresBatch() {
+        scoringService.computeScores(stars, forks, updated, scores);
+        return scores;
+    }
+
+    /** The hardcoded built-in formula, as the baseline for the compiled profiles below. */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public double[] builtInKernel() {
+        scoringService.computeScores(stars, forks, updated, scores, now);
+        return scores;
+    }
+
+    /** The same formula as a compiled profile; should match {@link #builtInKernel}. */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public double[] compiledBuiltInProfile() {
+        builtIn.score(stars, forks, updated, scores, now);
+        return scores;
+    }
+
+    /** A profile with log transforms and exponential decay, which adds log1p and exp per item. */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public double[] compiledLogExponentialProfile() {
+        logExponential.score(stars, forks, updated, scores, now);
+        return scores;
+    }
+
+    /** What the ranker pays: column extraction from the upstream items plus the batch kernel. */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public double[] scorePage() {
+        return scoringService.scorePage(items);
+    }
+}
@@ -0,0 +1,79 @@
+package com.redcare.popularity.bench;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.cache.HotQueryTracker;
+import com.redcare.popularity.cache.PeerCache;
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.service.PopularityRanker;
+import com.redcare.popularity.service.PopularityService;
+import com.redcare.popularity.service.ScoringService;
+import com.redcare.popularity.service.SearchCoalescer;
+import com.redcare.popularity.service.StaleFallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PopularityService#searchAndScore} end to end (query building, coalescer, cache, ranking) against an
+ * in-process client that returns a pre-decoded page. With the cache enabled every call after the first is a hit,
+ * so that variant isolates the service overhead; with it disabled every call ranks the page again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchAndScoreBenchmark {
+
+    @Param({"20", "100"})
+    public int perPage;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private PopularityService service;
+    private final LocalDate createdAfter = LocalDate.of(2024, 1, 1);
+
+    @Setup
+    public void setUp() {
+        GitHubClient stub = new StubGitHubClient(BenchFixtures.decodedPage(perPage));
+        var cache = new GitHubSearchCache(stub, cacheEnabled, 1_000, 60_000, 10_000, 600_000);
+        service = new PopularityService(cache, new PopularityRanker(new ScoringService()), new SearchCoalescer(6_000),
+                RepositoryIndex.disabled(), new HotQueryTracker(1_024, 64), StaleFallback.disabled(), PeerCache.disabled());
+    }
+
+    @Benchmark
+    public PopularityResponse searchAndScore() {
+        return service.searchAndScore("Java", createdAfter, "framework", perPage, 1);
+    }
+
+    private record StubGitHubClient(GitHubSearchResponse page) implements GitHubClient {
+
+        @Override
+        public GitHubSearchResponse searchRepositories(String q, int perPage, int page) {
+            return this.page;
+        }
+
+        @Override
+        public ResponseEntity<GitHubSearchResponse> searchRepositoriesConditionally(String q, int perPage, int page,
+                                                                                    String ifNoneMatch, String ifModifiedSince) {
+            return ResponseEntity.ok(this.page);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.redcare.popularity.bench;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.redcare.popularity.client.GitHubSearchPayloads;
+import com.redcare.popularity.client.PooledHttpTransport;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.okhttp.OkHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+
+/**
+ * Feign transports against a local WireMock stub serving a 100-item search page, behind {@link CountingProxy}.
+ * {@code jdk} is Feign's {@code HttpURLConnection} client (the old default); {@code okhttp} is the pooled,
+ * compressing transport. Besides time per call, each iteration prints TCP connections and bytes on the wire per
+ * request. Over plain HTTP the stub speaks HTTP/1.1, so this measures pooling and compression, not multiplexing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class TransportBenchmark {
+
+    @Param({"jdk", "okhttp"})
+    public String transport;
+
+    private WireMockServer stub;
+    private CountingProxy proxy;
+    private Client client;
+    private String url;
+    private final LongAdder requests = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void startStub() throws IOException {
+        stub = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort().containerThreads(64));
+        stub.start();
+        stub.stubFor(get(urlPathEqualTo("/search/repositories")).willReturn(okJson(GitHubSearchPayloads.page(100))));
+        proxy = new CountingProxy(stub.port());
+        url = "http://localhost:" + proxy.port() + "/search/repositories?q=language:java&per_page=100";
+        client = "okhttp".equals(transport)
+                ? new OkHttpClient(PooledHttpTransport.create(
+                        new PooledHttpTransport.Settings(16, 300_000, true, true), new SimpleMeterRegistry()))
+                : new Client.Default(null, null);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        proxy.reset();
+        requests.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printWireCounters() {
+        long n = Math.max(1, requests.sum());
+        System.out.printf("%n[%s] requests=%d connections/request=%.4f bytes/request=%d%n",
+                transport, requests.sum(), (double) proxy.connections() / n, proxy.bytesToClient() / n);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStub() throws IOException {
+        proxy.close();
+        stub.stop();
+    }
+
+    @Benchmark
+    public int search() throws IOException {
+        Request request = Request.create(Request.HttpMethod.GET, url,
+                Map.of("Accept", List.of("application/vnd.github+json")), null, StandardCharsets.UTF_8,
+                new RequestTemplate());
+        try (Response response = client.execute(request, new Request.Options());
+             InputStream body = response.body().asInputStream()) {
+            requests.increment();
+            return body.readAllBytes().length;
+        }
+    }
+}
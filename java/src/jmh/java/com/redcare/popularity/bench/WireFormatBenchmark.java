@@ -0,0 +1,93 @@
+package com.redcare.popularity.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.wire.PopularityProtobufCodec;
+import com.redcare.popularity.service.PopularityRanker;
+import com.redcare.popularity.service.ScoringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of a ranked 100-item {@link PopularityResponse} in every format /repos/popularity can
+ * produce. {@code json-gzip} is JSON plus the gzip the server applies for {@code Accept-Encoding: gzip}. The encoded
+ * size (and its gzipped size) of each format is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor", "protobuf"})
+    public String format;
+
+    private PopularityResponse response;
+    private ObjectMapper mapper;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = new PopularityRanker(new ScoringService()).rank(BenchFixtures.decodedPage(100));
+        mapper = switch (format) {
+            case "smile" -> jackson(new ObjectMapper(new SmileFactory()));
+            case "cbor" -> jackson(new ObjectMapper(new CBORFactory()));
+            default -> jackson(new ObjectMapper());
+        };
+        encoded = encode();
+        System.out.printf("%n[%s] %d items: %d bytes, %d bytes gzipped%n",
+                format, response.items().size(), encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return switch (format) {
+            case "protobuf" -> PopularityProtobufCodec.encode(response);
+            case "json-gzip" -> gzip(mapper.writeValueAsBytes(response));
+            default -> mapper.writeValueAsBytes(response);
+        };
+    }
+
+    @Benchmark
+    public PopularityResponse decode() throws IOException {
+        return switch (format) {
+            case "protobuf" -> PopularityProtobufCodec.decode(encoded);
+            case "json-gzip" -> mapper.readValue(new GZIPInputStream(new ByteArrayInputStream(encoded)), PopularityResponse.class);
+            default -> mapper.readValue(encoded, PopularityResponse.class);
+        };
+    }
+
+    private static ObjectMapper jackson(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,9 @@
+package com.redcare.popularity.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long revalidations,
+        long evictions,
+        long size
+) {}
@@ -0,0 +1,188 @@
+package com.redcare.popularity.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded TTL cache in front of {@link GitHubClient#searchRepositories}.
+ * <p>
+ * Fresh entries are served locally. Once stale, an entry is kept for {@code retentionMillis} so the next
+ * lookup can revalidate it with {@code If-None-Match}/{@code If-Modified-Since}; a 304 only extends freshness.
+ * Empty pages and non rate-limit 4xx answers are remembered for the shorter {@code negativeTtlMillis}.
+ */
+@Component
+@Slf4j
+public class GitHubSearchCache {
+    private final GitHubClient gitHubClient;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long retentionNanos;
+    private final Ticker ticker;
+    private final Cache<SearchKey, CachedSearch> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public GitHubSearchCache(GitHubClient gitHubClient,
+                             @Value("${github.cache.enabled:true}") boolean enabled,
+                             @Value("${github.cache.maxEntries:1000}") long maxEntries,
+                             @Value("${github.cache.ttlMillis:60000}") long ttlMillis,
+                             @Value("${github.cache.negativeTtlMillis:10000}") long negativeTtlMillis,
+                             @Value("${github.cache.retentionMillis:600000}") long retentionMillis) {
+        this(gitHubClient, enabled, maxEntries, ttlMillis, negativeTtlMillis, retentionMillis, Ticker.systemTicker());
+    }
+
+    GitHubSearchCache(GitHubClient gitHubClient, boolean enabled, long maxEntries, long ttlMillis,
+                      long negativeTtlMillis, long retentionMillis, Ticker ticker) {
+        this.gitHubClient = gitHubClient;
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(retentionMillis, ttlMillis));
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new RetentionExpiry())
+                .evictionListener((SearchKey key, CachedSearch value, RemovalCause cause) -> evictions.increment())
+                .ticker(ticker)
+                .build();
+    }
+
+    public GitHubSearchResponse search(String q, int perPage, int page) {
+        if (!enabled) {
+            return gitHubClient.searchRepositories(q, perPage, page);
+        }
+        SearchKey key = SearchKey.of(q, perPage, page);
+        CachedSearch cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh(ticker.read())) {
+            hits.increment();
+            log.atDebug().log("Cache hit for {}", key);
+            return cached.resolve();
+        }
+        misses.increment();
+        return fetch(key, q, perPage, page, cached);
+    }
+
+    /**
+     * How long the cached page stays fresh: negative once stale, {@link Long#MIN_VALUE} when nothing is cached.
+     */
+    public long freshForMillis(SearchKey key) {
+        CachedSearch cached = enabled ? cache.getIfPresent(key) : null;
+        if (cached == null) return Long.MIN_VALUE;
+        return TimeUnit.NANOSECONDS.toMillis(cached.freshUntilNanos() - ticker.read());
+    }
+
+    /**
+     * Revalidates a cached page ahead of its expiry, with the same conditional request a stale lookup would send.
+     * Not counted as a hit or miss.
+     */
+    public void refresh(SearchKey key) {
+        if (!enabled) return;
+        fetch(key, key.query(), key.perPage(), key.page(), cache.getIfPresent(key));
+    }
+
+    public CacheStats stats() {
+        cache.cleanUp();
+        return new CacheStats(hits.sum(), misses.sum(), revalidations.sum(), evictions.sum(), cache.estimatedSize());
+    }
+
+    private GitHubSearchResponse fetch(SearchKey key, String q, int perPage, int page, CachedSearch stale) {
+        String etag = stale != null ? stale.etag() : null;
+        String lastModified = stale != null ? stale.lastModified() : null;
+        ResponseEntity<GitHubSearchResponse> response;
+        try {
+            response = gitHubClient.searchRepositoriesConditionally(q, perPage, page, etag, lastModified);
+        } catch (GitHubApiException ex) {
+            int status = ex.getStatusCode();
+            if (status == 304 && stale != null && stale.response() != null) {
+                revalidations.increment();
+                log.atDebug().log("Revalidated {} via 304", key);
+                cache.put(key, stale.withFreshUntil(ticker.read() + ttlNanos));
+                return stale.response();
+            }
+            if (status >= 400 && status < 500 && status != 429) {
+                cache.put(key, CachedSearch.failure(status, ex.getMessage(), ticker.read() + negativeTtlNanos, negativeTtlNanos));
+            }
+            throw ex;
+        }
+
+        GitHubSearchResponse body = response.getBody();
+        if (body == null) {
+            body = new GitHubSearchResponse(0, List.of());
+        }
+        HttpHeaders headers = response.getHeaders();
+        String newEtag = headers.getETag();
+        String newLastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        boolean empty = body.items() == null || body.items().isEmpty();
+        long freshFor = empty ? negativeTtlNanos : ttlNanos;
+        long retainFor = (newEtag != null || newLastModified != null) ? retentionNanos : freshFor;
+        cache.put(key, new CachedSearch(body, 0, null, newEtag, newLastModified, ticker.read() + freshFor, retainFor));
+        return body;
+    }
+
+    private record CachedSearch(
+            GitHubSearchResponse response,
+            int errorStatus,
+            String errorMessage,
+            String etag,
+            String lastModified,
+            long freshUntilNanos,
+            long retainNanos
+    ) {
+        static CachedSearch failure(int status, String message, long freshUntilNanos, long retainNanos) {
+            return new CachedSearch(null, status, message, null, null, freshUntilNanos, retainNanos);
+        }
+
+        boolean isFresh(long nowNanos) {
+            return nowNanos - freshUntilNanos < 0;
+        }
+
+        CachedSearch withFreshUntil(long freshUntil) {
+            return new CachedSearch(response, errorStatus, errorMessage, etag, lastModified, freshUntil, retainNanos);
+        }
+
+        GitHubSearchResponse resolve() {
+            if (response == null) {
+                throw new GitHubApiException(errorStatus, errorMessage, null);
+            }
+            return response;
+        }
+    }
+
+    private static final class RetentionExpiry implements Expiry<SearchKey, CachedSearch> {
+        @Override
+        public long expireAfterCreate(SearchKey key, CachedSearch value, long currentTime) {
+            return value.retainNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(SearchKey key, CachedSearch value, long currentTime, long currentDuration) {
+            return value.retainNanos();
+        }
+
+        @Override
+        public long expireAfterRead(SearchKey key, CachedSearch value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
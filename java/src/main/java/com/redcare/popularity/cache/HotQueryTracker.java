@@ -0,0 +1,126 @@
+package com.redcare.popularity.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate request frequency per search key: a count-min sketch (4 rows of {@code sketchWidth} counters) that
+ * halves every counter after {@code 10 * sketchWidth} recordings, so popularity decays over time, plus a small set of
+ * candidate keys with the highest estimates. Memory is fixed regardless of how many distinct queries arrive.
+ * Estimates may be slightly high, never low; maintenance is skipped rather than waited for under contention.
+ */
+@Component
+public class HotQueryTracker {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+    private final int width;
+    private final int sampleSize;
+    private final int maxCandidates;
+    private final AtomicIntegerArray counters;
+    private final AtomicInteger additions = new AtomicInteger();
+    private final Set<SearchKey> candidates = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock maintenance = new ReentrantLock();
+
+    public HotQueryTracker(@Value("${github.hotQueries.sketchWidth:1024}") int sketchWidth,
+                           @Value("${github.hotQueries.maxCandidates:64}") int maxCandidates) {
+        this.width = Integer.highestOneBit(Math.max(16, sketchWidth));
+        this.sampleSize = 10 * width;
+        this.maxCandidates = maxCandidates;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+    }
+
+    public void record(SearchKey key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(slot(hash, row)));
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+        if (!candidates.contains(key)) {
+            admit(key, estimate);
+        }
+    }
+
+    public int estimate(SearchKey key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(slot(hash, row)));
+        }
+        return estimate;
+    }
+
+    /** Up to {@code n} candidates seen at least {@code minCount} times recently, most frequent first. */
+    public List<SearchKey> top(int n, int minCount) {
+        return candidates.stream()
+                .map(key -> new Scored(key, estimate(key)))
+                .filter(s -> s.count() >= minCount)
+                .sorted(Comparator.comparingInt(Scored::count).reversed())
+                .limit(n)
+                .map(Scored::key)
+                .toList();
+    }
+
+    private void admit(SearchKey key, int estimate) {
+        if (candidates.size() < maxCandidates) {
+            candidates.add(key);
+            return;
+        }
+        if (!maintenance.tryLock()) return;
+        try {
+            SearchKey coldest = null;
+            int coldestCount = Integer.MAX_VALUE;
+            for (SearchKey candidate : candidates) {
+                int count = estimate(candidate);
+                if (count < coldestCount) {
+                    coldest = candidate;
+                    coldestCount = count;
+                }
+            }
+            if (coldest != null && estimate > coldestCount) {
+                candidates.remove(coldest);
+                candidates.add(key);
+            }
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private void age() {
+        if (!maintenance.tryLock()) return;
+        try {
+            if (additions.get() < sampleSize) return;
+            additions.set(0);
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, counters.get(i) >>> 1);
+            }
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private int slot(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 15;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45D9F3B;
+        return h ^ (h >>> 16);
+    }
+
+    private record Scored(SearchKey key, int count) {}
+}
@@ -0,0 +1,64 @@
+package com.redcare.popularity.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Most recent successfully scored response per search key, kept for {@code maxAgeMillis} after it was stored.
+ * Unlike {@link GitHubSearchCache} it is never consulted while GitHub answers in time; it only backs degraded responses.
+ */
+@Component
+public class LastKnownGoodStore {
+    private final boolean enabled;
+    private final Clock clock;
+    private final Cache<SearchKey, Stored> entries;
+
+    @Autowired
+    public LastKnownGoodStore(@Value("${github.staleFallback.enabled:true}") boolean enabled,
+                              @Value("${github.staleFallback.maxEntries:1000}") long maxEntries,
+                              @Value("${github.staleFallback.maxAgeMillis:86400000}") long maxAgeMillis,
+                              Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(enabled ? maxEntries : 0)
+                .expireAfterWrite(Duration.ofMillis(maxAgeMillis))
+                .build();
+    }
+
+    public static LastKnownGoodStore disabled() {
+        return new LastKnownGoodStore(false, 0, 1, Clock.systemUTC());
+    }
+
+    public void put(SearchKey key, PopularityResponse response) {
+        if (enabled) {
+            entries.put(key, new Stored(response, clock.instant()));
+        }
+    }
+
+    /** The last good response for {@code key}, or {@code null}. */
+    public Stored get(SearchKey key) {
+        return enabled ? entries.getIfPresent(key) : null;
+    }
+
+    public Duration age(Stored stored) {
+        return Duration.between(stored.storedAt(), clock.instant());
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public record Stored(
+            PopularityResponse response,
+            Instant storedAt
+    ) {}
+}
@@ -0,0 +1,189 @@
+package com.redcare.popularity.cache;
+
+import com.redcare.popularity.controller.PopularityController;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.wire.PopularityProtobufCodec;
+import com.redcare.popularity.controller.wire.ProtobufPopularityConverter;
+import com.redcare.popularity.exception.PeerServedStaleException;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cluster tier in front of the local search pipeline. Replicas listed in {@code github.cluster.peers} share a
+ * consistent-hash ring over the normalized search key, so each search has one owner replica that calls GitHub and
+ * caches the result; the other replicas fetch the scored response from the owner over {@code /internal/cluster} as
+ * protobuf. When the owner cannot be reached or answers with an error the search runs locally, and an unreachable
+ * owner is skipped for {@code peerDownMillis}. An owner that answered from its last-known-good store says so with
+ * {@code Age} and {@code X-Served-Stale}; that answer is raised as {@link PeerServedStaleException} so it is passed on
+ * as stale rather than taken for a live result.
+ */
+@Component
+@Slf4j
+public class PeerCache {
+    public static final String PATH = "/internal/cluster/popularity";
+
+    private final Clock clock;
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final OkHttpClient http;
+    private final long peerDownMillis;
+    private final ConcurrentHashMap<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    private final LongAdder owned = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    @Autowired
+    public PeerCache(Clock clock,
+                     @Value("${github.cluster.enabled:false}") boolean enabled,
+                     @Value("${github.cluster.self:}") String self,
+                     @Value("${github.cluster.peers:}") List<String> peers,
+                     @Value("${github.cluster.virtualNodes:128}") int virtualNodes,
+                     @Value("${github.cluster.connectTimeoutMillis:250}") long connectTimeoutMillis,
+                     @Value("${github.cluster.readTimeoutMillis:5000}") long readTimeoutMillis,
+                     @Value("${github.cluster.peerDownMillis:5000}") long peerDownMillis) {
+        this.clock = clock;
+        this.peerDownMillis = peerDownMillis;
+        if (!enabled) {
+            this.self = null;
+            this.ring = null;
+            this.http = null;
+            return;
+        }
+        if (self == null || self.isBlank()) {
+            throw new IllegalStateException("github.cluster.self must be set when github.cluster.enabled=true");
+        }
+        this.self = normalize(self);
+        Set<String> nodes = new LinkedHashSet<>();
+        nodes.add(this.self);
+        peers.stream().filter(p -> !p.isBlank()).map(PeerCache::normalize).forEach(nodes::add);
+        this.ring = new ConsistentHashRing(nodes, virtualNodes);
+        this.http = new OkHttpClient.Builder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .retryOnConnectionFailure(false)
+                .build();
+        log.atInfo().log("Cluster cache enabled: {} of {} replicas", this.self, nodes.size());
+    }
+
+    /** Every search runs locally; for tests and benchmarks. */
+    public static PeerCache disabled() {
+        return new PeerCache(Clock.systemUTC(), false, null, List.of(), 1, 0, 0, 0);
+    }
+
+    public boolean enabled() {
+        return ring != null;
+    }
+
+    /**
+     * The scored response for {@code key} from its owner replica, or from {@code local} when this replica owns it or
+     * the owner fails. {@code q} and {@code profile} are what the owner runs; the ring only looks at the search key,
+     * so every scoring profile of one search lands on the replica that has it cached upstream.
+     */
+    public PopularityResponse fetch(SearchKey key, String q, String profile, Supplier<PopularityResponse> local) {
+        if (ring == null) {
+            return local.get();
+        }
+        String owner = ring.owner(ringKey(key));
+        if (owner.equals(self)) {
+            owned.increment();
+            return local.get();
+        }
+        Long down = downUntil.get(owner);
+        if (down != null && clock.millis() < down) {
+            fallbacks.increment();
+            return local.get();
+        }
+        OwnerAnswer remote = askOwner(owner, q, key.perPage(), key.page(), profile);
+        if (remote == null) {
+            fallbacks.increment();
+            return local.get();
+        }
+        forwarded.increment();
+        if (remote.staleReason() != null) {
+            throw new PeerServedStaleException(remote.response(), remote.age(), remote.staleReason());
+        }
+        return remote.response();
+    }
+
+    public PeerStats stats() {
+        return new PeerStats(owned.sum(), forwarded.sum(), fallbacks.sum(), ring == null ? 0 : ring.nodes().size());
+    }
+
+    private OwnerAnswer askOwner(String owner, String q, int perPage, int page, String profile) {
+        HttpUrl.Builder url = HttpUrl.get(owner + PATH).newBuilder()
+                .addQueryParameter("q", q)
+                .addQueryParameter("per_page", String.valueOf(perPage))
+                .addQueryParameter("page", String.valueOf(page));
+        if (profile != null) url.addQueryParameter("profile", profile);
+        Request request = new Request.Builder()
+                .url(url.build())
+                .header(HttpHeaders.ACCEPT, ProtobufPopularityConverter.PROTOBUF_VALUE)
+                .build();
+        try (Response response = http.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                log.atInfo().log("Owner {} answered {} for q='{}'; searching locally", owner, response.code(), q);
+                return null;
+            }
+            downUntil.remove(owner);
+            return new OwnerAnswer(PopularityProtobufCodec.decode(body.bytes()),
+                    ageOf(response.header(HttpHeaders.AGE)), response.header(PopularityController.STALE_HEADER));
+        } catch (IOException | RuntimeException ex) {
+            downUntil.put(owner, clock.millis() + peerDownMillis);
+            log.atWarn().log("Owner {} unreachable, searching locally for {} ms: {}", owner, peerDownMillis, ex.getMessage());
+            return null;
+        }
+    }
+
+    private static Duration ageOf(String header) {
+        if (header == null) return Duration.ZERO;
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException ex) {
+            return Duration.ZERO;
+        }
+    }
+
+    static String ringKey(SearchKey key) {
+        return key.query() + '\n' + key.perPage() + '\n' + key.page();
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        HttpUrl.get(trimmed);
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /** The owner's response; {@code staleReason} is set when it served its last known good one. */
+    private record OwnerAnswer(
+            PopularityResponse response,
+            Duration age,
+            String staleReason
+    ) {}
+
+    public record PeerStats(
+            long owned,
+            long forwarded,
+            long fallbacks,
+            int replicas
+    ) {}
+}
@@ -0,0 +1,116 @@
+package com.redcare.popularity.cache;
+
+import com.redcare.popularity.client.GitHubTokenScheduler;
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revalidates the most requested cached searches shortly before they go stale, so hot queries keep hitting a fresh
+ * entry. Only keys already in the cache are refreshed, and at most {@code budgetShare} of the rate-limit budget per
+ * window is spent on it; requests for cold queries go through the cache exactly as before.
+ */
+@Component
+@ConditionalOnProperty(name = "github.hotQueries.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RefreshAheadScheduler {
+    private final GitHubSearchCache cache;
+    private final HotQueryTracker tracker;
+    private final GitHubTokenScheduler tokenScheduler;
+    private final Clock clock;
+    private final int topN;
+    private final int minHits;
+    private final long refreshAheadMillis;
+    private final double budgetShare;
+    private final int initialBudget;
+    private final long windowMillis;
+
+    private long windowStartMillis;
+    private int spentInWindow;
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder skippedForBudget = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public RefreshAheadScheduler(GitHubSearchCache cache, HotQueryTracker tracker, GitHubTokenScheduler tokenScheduler,
+                                 Clock clock,
+                                 @Value("${github.hotQueries.topN:16}") int topN,
+                                 @Value("${github.hotQueries.minHits:2}") int minHits,
+                                 @Value("${github.hotQueries.refreshAheadMillis:10000}") long refreshAheadMillis,
+                                 @Value("${github.hotQueries.budgetShare:0.2}") double budgetShare,
+                                 @Value("${github.rateLimit.initialBudget:30}") int initialBudget,
+                                 @Value("${github.rateLimit.windowMillis:60000}") long windowMillis) {
+        this.cache = cache;
+        this.tracker = tracker;
+        this.tokenScheduler = tokenScheduler;
+        this.clock = clock;
+        this.topN = topN;
+        this.minHits = minHits;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.budgetShare = budgetShare;
+        this.initialBudget = initialBudget;
+        this.windowMillis = windowMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${github.hotQueries.intervalMillis:5000}",
+            initialDelayString = "${github.hotQueries.intervalMillis:5000}")
+    public void refreshHotQueries() {
+        for (SearchKey key : tracker.top(topN, minHits)) {
+            long freshFor = cache.freshForMillis(key);
+            if (freshFor == Long.MIN_VALUE || freshFor > refreshAheadMillis) {
+                continue;
+            }
+            if (!takePermit()) {
+                skippedForBudget.increment();
+                continue;
+            }
+            try {
+                cache.refresh(key);
+                refreshed.increment();
+                log.atDebug().log("Refreshed hot query {} ahead of expiry", key);
+            } catch (GitHubApiException ex) {
+                failed.increment();
+                log.atDebug().log("Refresh-ahead of {} failed with {}", key, ex.getStatusCode());
+            } catch (RuntimeException ex) {
+                failed.increment();
+                log.atWarn().log("Refresh-ahead of {} failed: {}", key, ex.getMessage());
+            }
+        }
+    }
+
+    public RefreshStats stats() {
+        return new RefreshStats(refreshed.sum(), skippedForBudget.sum(), failed.sum());
+    }
+
+    /**
+     * Scheduled runs never overlap, so the window bookkeeping needs no synchronization.
+     */
+    private boolean takePermit() {
+        if (tokenScheduler.availableBudget(tokenScheduler.searchResource()) <= 0) {
+            return false;
+        }
+        long now = clock.millis();
+        if (now - windowStartMillis >= windowMillis) {
+            windowStartMillis = now;
+            spentInWindow = 0;
+        }
+        int permits = Math.max(1, (int) (budgetShare * initialBudget * tokenScheduler.stats().tokens()));
+        if (spentInWindow >= permits) {
+            return false;
+        }
+        spentInWindow++;
+        return true;
+    }
+
+    public record RefreshStats(
+            long refreshed,
+            long skippedForBudget,
+            long failed
+    ) {}
+}
@@ -0,0 +1,27 @@
+package com.redcare.popularity.cache;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized identity of one upstream search page: GitHub treats the query case-insensitively
+ * and ignores repeated whitespace, so those variants share a key. {@code profile} is only set on keys of scored
+ * responses under a non-default scoring profile; upstream keys leave it null.
+ */
+public record SearchKey(
+        String query,
+        int perPage,
+        int page,
+        String profile
+) {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static SearchKey of(String q, int perPage, int page) {
+        String normalized = q == null ? "" : WHITESPACE.matcher(q.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        return new SearchKey(normalized, perPage, page, null);
+    }
+
+    public SearchKey withProfile(String profile) {
+        return new SearchKey(query, perPage, page, profile);
+    }
+}
@@ -0,0 +1,154 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.ConcurrencyLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Gradient concurrency limit for GitHub calls. A fast and a slow moving average of call latency are kept; while the
+ * fast one stays within {@code tolerance} of the slow one the limit grows by about its square root per sample, and as
+ * latency rises above that the limit shrinks in proportion (by at most half). Failed calls back off by 10%. Calls
+ * over the limit are rejected at once instead of queueing, so a GitHub brownout sheds load rather than parking request
+ * threads on it.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final LongSupplier nanoTime;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private double estimatedLimit;
+    private volatile int limit;
+    private double shortRtt;
+    private double longRtt;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${github.concurrencyLimit.enabled:true}") boolean enabled,
+                                      @Value("${github.concurrencyLimit.initialLimit:20}") int initialLimit,
+                                      @Value("${github.concurrencyLimit.minLimit:2}") int minLimit,
+                                      @Value("${github.concurrencyLimit.maxLimit:20}") int maxLimit,
+                                      @Value("${github.concurrencyLimit.smoothing:0.2}") double smoothing,
+                                      @Value("${github.concurrencyLimit.tolerance:1.5}") double tolerance) {
+        this(enabled, initialLimit, minLimit, maxLimit, smoothing, tolerance, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(boolean enabled, int initialLimit, int minLimit, int maxLimit, double smoothing,
+                               double tolerance, LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("github.concurrencyLimit needs 1 <= minLimit <= maxLimit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.nanoTime = nanoTime;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a slot or throws {@link ConcurrencyLimitExceededException}; the permit must be released exactly once.
+     */
+    public Permit acquire() {
+        int current = limit;
+        int now = inFlight.incrementAndGet();
+        if (now > current) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new ConcurrencyLimitExceededException(current);
+        }
+        accepted.increment();
+        return new Permit(nanoTime.getAsLong(), now);
+    }
+
+    /**
+     * {@code failed} is a transport failure or a 5xx: its latency says nothing useful, so it only backs the limit off.
+     */
+    public void release(Permit permit, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            backOff();
+        } else {
+            onSample(nanoTime.getAsLong() - permit.startNanos(), permit.inFlight());
+        }
+    }
+
+    /** Frees the slot of a call that never reached GitHub, without taking it as a sample. */
+    public void cancel(Permit permit) {
+        inFlight.decrementAndGet();
+    }
+
+    public LimiterStats stats() {
+        return new LimiterStats(limit, inFlight.get(), accepted.sum(), rejected.sum());
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+            longRtt += (rtt - longRtt) / LONG_WINDOW;
+        }
+        // After a long brownout the baseline has crept up; let it follow recovered latency quickly.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // A lightly used limit has not been tested, so it is neither raised nor lowered.
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        update(estimatedLimit * (1 - smoothing) + target * smoothing);
+    }
+
+    private synchronized void backOff() {
+        update(estimatedLimit * FAILURE_BACKOFF);
+    }
+
+    private void update(double next) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        int rounded = (int) estimatedLimit;
+        if (rounded != limit) {
+            log.atDebug().log("GitHub concurrency limit {} -> {}", limit, rounded);
+            limit = rounded;
+        }
+    }
+
+    public record Permit(
+            long startNanos,
+            int inFlight
+    ) {}
+
+    public record LimiterStats(
+            int limit,
+            int inFlight,
+            long accepted,
+            long rejected
+    ) {}
+}
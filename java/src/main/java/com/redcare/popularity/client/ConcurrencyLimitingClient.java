@@ -0,0 +1,45 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * Feign transport decorator inside the token lease: every GitHub call holds an {@link AdaptiveConcurrencyLimiter} slot
+ * until its response body is closed, so the latency sample is the exchange with GitHub alone. Calls over the limit
+ * fail before touching a connection, and {@link RateLimitAwareClient} hands their token back. The rejection is not an
+ * {@link IOException}, so the retryer does not retry it.
+ */
+public class ConcurrencyLimitingClient implements Client {
+    private final Client delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitingClient(Client delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException ex) {
+            limiter.release(permit, true);
+            throw ex;
+        } catch (RuntimeException ex) {
+            // not a GitHub failure, so the limit is left alone
+            limiter.cancel(permit);
+            throw ex;
+        }
+        boolean failed = response.status() >= 500;
+        if (response.body() == null) {
+            limiter.release(permit, failed);
+            return response;
+        }
+        return response.toBuilder().body(new ReleasingBody(response.body(), () -> limiter.release(permit, failed))).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.GitHubApiException;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Feign retryer with "decorrelated jitter" backoff: {@code sleep = min(max, random(initial, previous * 3))}.
+ * Only exceptions the error decoder marked retryable reach it (5xx on GET, connect/read failures).
+ * A {@code Retry-After} longer than {@code maxBackoffMillis} ends retrying instead of stalling the caller.
+ * When attempts run out the underlying {@link GitHubApiException} is rethrown so error mapping stays unchanged.
+ */
+public class DecorrelatedJitterRetryer implements Retryer {
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+
+    private int attempt = 1;
+    private long previousBackoffMillis;
+
+    public DecorrelatedJitterRetryer(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        this(maxAttempts, initialBackoffMillis, maxBackoffMillis, System::currentTimeMillis, Thread::sleep);
+    }
+
+    DecorrelatedJitterRetryer(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis,
+                              LongSupplier clock, Sleeper sleeper) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.previousBackoffMillis = initialBackoffMillis;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (attempt++ >= maxAttempts) {
+            throw giveUp(e);
+        }
+        long backoff;
+        if (e.retryAfter() != null) {
+            backoff = Math.max(0, e.retryAfter() - clock.getAsLong());
+            if (backoff > maxBackoffMillis) {
+                throw giveUp(e);
+            }
+        } else {
+            long upper = Math.max(initialBackoffMillis + 1, previousBackoffMillis * 3);
+            backoff = Math.min(maxBackoffMillis, ThreadLocalRandom.current().nextLong(initialBackoffMillis, upper));
+        }
+        previousBackoffMillis = Math.max(initialBackoffMillis, backoff);
+        try {
+            sleeper.sleep(backoff);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        return new DecorrelatedJitterRetryer(maxAttempts, initialBackoffMillis, maxBackoffMillis, clock, sleeper);
+    }
+
+    private static RuntimeException giveUp(RetryableException e) {
+        if (e.getCause() instanceof GitHubApiException upstream) {
+            return upstream;
+        }
+        int status = e.status() > 0 ? e.status() : 504;
+        return new GitHubApiException(status, "GitHub request failed: " + e.getMessage(), e);
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -0,0 +1,24 @@
+package com.redcare.popularity.client;
+
+import java.util.Locale;
+
+/**
+ * Request headers and status normalization shared by every GitHub transport.
+ */
+public final class GitHubApiConventions {
+    public static final String ACCEPT = "application/vnd.github+json";
+    public static final String API_VERSION_HEADER = "X-GitHub-Api-Version";
+    public static final String API_VERSION = "2022-11-28";
+    public static final String USER_AGENT = "redcare-popularity/0.1";
+
+    private GitHubApiConventions() {
+    }
+
+    /**
+     * GitHub reports secondary rate limits as 403 with a "rate limit" message; treat those as 429.
+     */
+    public static int normalizeStatus(int status, String body) {
+        if (status == 403 && body != null && body.toLowerCase(Locale.ROOT).contains("rate limit")) return 429;
+        return status;
+    }
+}
@@ -2,14 +2,19 @@ package com.redcare.popularity.client;
 
 import com.redcare.popularity.client.model.GitHubSearchResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient(
         name = "github",
         url = "${github.apiBaseUrl:https://api.github.com}",
         configuration = GitHubFeignConfig.class,
-        fallbackFactory = GitHubClientFallbackFactory.class
+        fallbackFactory = GitHubClientFallbackFactory.class,
+        // lets the GraphQL-backed client take over as @Primary when github.graphql.enabled=true
+        primary = false
 )
 public interface GitHubClient {
 
@@ -19,4 +24,17 @@ public interface GitHubClient {
             @RequestParam("per_page") int perPage,
             @RequestParam("page") int page
     );
+
+    /**
+     * Same search, but exposes the response headers and sends validators when given.
+     * A 304 surfaces as {@code GitHubApiException} with status 304 through the error decoder.
+     */
+    @GetMapping("/search/repositories")
+    ResponseEntity<GitHubSearchResponse> searchRepositoriesConditionally(
+            @RequestParam("q") String q,
+            @RequestParam("per_page") int perPage,
+            @RequestParam("page") int page,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince
+    );
 }
@@ -1,12 +1,34 @@
 package com.redcare.popularity.client;
 
+import com.redcare.popularity.client.model.GitHubSearchResponse;
 import com.redcare.popularity.exception.GitHubApiException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+/**
+ * Runs when a call fails under the circuit breaker. GitHub's own answers (304, 429, 4xx, 5xx) pass through with their
+ * status; an open circuit or any other failure becomes a 503 carrying it as the cause.
+ */
 @Component
 public class GitHubClientFallbackFactory implements org.springframework.cloud.openfeign.FallbackFactory<GitHubClient> {
     @Override
     public GitHubClient create(Throwable cause) {
-        return (q, perPage, page) -> { throw new GitHubApiException(503, "Circuit/Fallback", cause); };
+        return new GitHubClient() {
+            @Override
+            public GitHubSearchResponse searchRepositories(String q, int perPage, int page) {
+                throw failure(cause);
+            }
+
+            @Override
+            public ResponseEntity<GitHubSearchResponse> searchRepositoriesConditionally(String q, int perPage, int page,
+                                                                                       String ifNoneMatch, String ifModifiedSince) {
+                throw failure(cause);
+            }
+        };
+    }
+
+    private static GitHubApiException failure(Throwable cause) {
+        if (cause instanceof GitHubApiException gitHub) return gitHub;
+        return new GitHubApiException(503, "Circuit/Fallback", cause);
     }
 }
@@ -1,56 +1,152 @@
 package com.redcare.popularity.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redcare.popularity.exception.GitHubApiException;
+import feign.Client;
+import feign.Request;
 import feign.RequestInterceptor;
 import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
+import feign.optionals.OptionalDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class GitHubFeignConfig {
 
-    @Value("${github.token:}")
-    private String token;
-
     @Bean
     public RequestInterceptor githubHeadersInterceptor() {
         return template -> {
-            template.header(HttpHeaders.ACCEPT, "application/vnd.github+json");
-            template.header("X-GitHub-Api-Version", "2022-11-28");
-            template.header(HttpHeaders.USER_AGENT, "redcare-popularity/0.1");
-            if (token != null && !token.isBlank()) {
-                template.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            template.header(HttpHeaders.ACCEPT, GitHubApiConventions.ACCEPT);
+            template.header(GitHubApiConventions.API_VERSION_HEADER, GitHubApiConventions.API_VERSION);
+            template.header(HttpHeaders.USER_AGENT, GitHubApiConventions.USER_AGENT);
+        };
+    }
+
+    @Bean
+    public Client githubTransport(GitHubTokenScheduler tokenScheduler,
+                                    MeterRegistry meterRegistry,
+                                    ObjectProvider<OkHttpClient> okHttpClient,
+                                    @Value("${github.http.maxRequestsPerRoute:20}") int maxRequestsPerRoute,
+                                    @Qualifier("gitHubHedgeExecutor") ExecutorService hedgeExecutor,
+                                    @Value("${github.hedging.enabled:false}") boolean hedgingEnabled,
+                                    @Value("${github.hedging.percentile:0.95}") double hedgingPercentile,
+                                    @Value("${github.hedging.minDelayMillis:100}") long hedgingMinDelayMillis,
+                                    AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        // The pooled client lives in the application context so the parent and the Feign child context share one pool.
+        OkHttpClient pooled = okHttpClient.getIfAvailable();
+        Client transport = pooled != null
+                ? new RouteLimitingClient(new feign.okhttp.OkHttpClient(pooled), maxRequestsPerRoute)
+                : new Client.Default(null, null);
+        Client network = new MeteredClient(transport, meterRegistry);
+        if (concurrencyLimiter.enabled()) {
+            // Inside the token lease, so the limit follows GitHub's latency and not the wait for rate budget.
+            network = new ConcurrencyLimitingClient(network, concurrencyLimiter);
+        }
+        Client client = new RateLimitAwareClient(network, tokenScheduler);
+        if (hedgingEnabled) {
+            client = new HedgingClient(client, hedgeExecutor, hedgingPercentile, hedgingMinDelayMillis);
+        }
+        return client;
+    }
+
+    /**
+     * Search pages use the streaming decoder; everything else (and the streaming path when disabled)
+     * binds through the application ObjectMapper. ResponseEntity/Optional wrapping is kept on top.
+     */
+    @Bean
+    public Decoder githubDecoder(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${github.decoder.streaming:true}") boolean streaming) {
+        Decoder jackson = (response, type) -> {
+            if (response.body() == null) return null;
+            try (InputStream is = response.body().asInputStream()) {
+                return objectMapper.readValue(is, objectMapper.constructType(type));
+            }
+        };
+        Decoder body = streaming ? new GitHubSearchStreamingDecoder(objectMapper.getFactory(), jackson) : jackson;
+        Timer decodeTimer = Timer.builder("github.client.decode")
+                .description("Decoding of GitHub response bodies")
+                .tag("decoder", streaming ? "streaming" : "databind")
+                .register(meterRegistry);
+        Decoder timed = (response, type) -> {
+            long start = System.nanoTime();
+            try {
+                return body.decode(response, type);
+            } finally {
+                decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         };
+        return new OptionalDecoder(new ResponseEntityDecoder(timed));
+    }
+
+    @Bean
+    public Retryer githubRetryer(@Value("${github.retry.maxAttempts:3}") int maxAttempts,
+                                 @Value("${github.retry.initialBackoffMillis:250}") long initialBackoffMillis,
+                                 @Value("${github.retry.maxBackoffMillis:2000}") long maxBackoffMillis) {
+        return new DecorrelatedJitterRetryer(maxAttempts, initialBackoffMillis, maxBackoffMillis);
     }
 
     @Bean
     public ErrorDecoder githubErrorDecoder() {
-        return (methodKey, response) -> new GitHubApiException(normalizeStatus(response), response.reason(), null);
+        return (methodKey, response) -> {
+            int status = normalizeStatus(response);
+            GitHubApiException error = new GitHubApiException(status, response.reason(), null);
+            if (status >= 500 && isReadOnly(response.request())) {
+                return new RetryableException(status, response.reason(), response.request().httpMethod(), error,
+                        retryAfterEpochMillis(response), response.request());
+            }
+            return error;
+        };
+    }
+
+    /**
+     * GETs and GraphQL searches, which are POSTs but only read.
+     */
+    private static boolean isReadOnly(Request request) {
+        return request.httpMethod() == Request.HttpMethod.GET || request.url().endsWith("/graphql");
     }
 
     private static int normalizeStatus(Response response) {
         int status = response.status();
-        if (status == 429) return 429;
-        if (status == 403 && isRateLimitBody(response)) return 429;
-        return status;
+        return status == 403 ? GitHubApiConventions.normalizeStatus(status, readBody(response)) : status;
+    }
+
+    private static Long retryAfterEpochMillis(Response response) {
+        Collection<String> values = response.headers().get(HttpHeaders.RETRY_AFTER);
+        if (values == null || values.isEmpty()) return null;
+        try {
+            return System.currentTimeMillis() + Long.parseLong(values.iterator().next().trim()) * 1000;
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
     }
 
-    private static boolean isRateLimitBody(Response response) {
+    private static String readBody(Response response) {
         try {
-            if (response.body() == null) return false;
+            if (response.body() == null) return null;
             try (InputStream is = response.body().asInputStream()) {
-                String body = new String(is.readAllBytes(), StandardCharsets.UTF_8).toLowerCase();
-                return body.contains("rate limit");
+                return new String(is.readAllBytes(), StandardCharsets.UTF_8);
             }
         } catch (Exception ignored) {
-            return false;
+            return null;
         }
     }
 }
@@ -0,0 +1,22 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.client.model.GraphQlRequest;
+import com.redcare.popularity.client.model.GraphQlSearchResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+/**
+ * GitHub's GraphQL endpoint, behind the same transport chain (token leasing, metrics, pooling) as {@link GitHubClient}.
+ */
+@FeignClient(
+        name = "github-graphql",
+        url = "${github.apiBaseUrl:https://api.github.com}",
+        configuration = GitHubFeignConfig.class
+)
+public interface GitHubGraphQlClient {
+
+    @PostMapping(path = "/graphql", consumes = MediaType.APPLICATION_JSON_VALUE)
+    GraphQlSearchResponse search(@RequestBody GraphQlRequest request);
+}
@@ -0,0 +1,143 @@
+package com.redcare.popularity.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass decoder for {@code /search/repositories}: walks the token stream and keeps only the eight
+ * fields {@link GitHubRepoItem} needs. Nested objects such as {@code owner} and {@code license} are skipped
+ * without being bound, and {@code updated_at}/{@code created_at} are parsed directly from GitHub's fixed
+ * {@code yyyy-MM-ddTHH:mm:ssZ} form. Any other target type goes to the fallback decoder.
+ */
+public class GitHubSearchStreamingDecoder implements Decoder {
+    private final JsonFactory jsonFactory;
+    private final Decoder fallback;
+
+    public GitHubSearchStreamingDecoder(JsonFactory jsonFactory, Decoder fallback) {
+        this.jsonFactory = jsonFactory;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (type != GitHubSearchResponse.class || response.body() == null) {
+            return fallback.decode(response, type);
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return read(body);
+        } catch (IllegalArgumentException | java.time.DateTimeException ex) {
+            throw new DecodeException(response.status(), "Malformed GitHub search response: " + ex.getMessage(),
+                    response.request(), ex);
+        }
+    }
+
+    public GitHubSearchResponse read(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return readSearch(parser);
+        }
+    }
+
+    private static GitHubSearchResponse readSearch(JsonParser p) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("expected object at " + p.currentLocation());
+        }
+        long totalCount = 0;
+        List<GitHubRepoItem> items = List.of();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "total_count" -> totalCount = p.getValueAsLong(0);
+                case "items" -> items = value == JsonToken.START_ARRAY ? readItems(p) : skip(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new GitHubSearchResponse(totalCount, items);
+    }
+
+    private static List<GitHubRepoItem> readItems(JsonParser p) throws IOException {
+        List<GitHubRepoItem> items = new ArrayList<>(100);
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IllegalArgumentException("unterminated items array at " + p.currentLocation());
+            }
+            // a null, scalar or array element is not a repository; skip it instead of ending the page there
+            if (token == JsonToken.START_OBJECT) {
+                items.add(readItem(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return items;
+    }
+
+    private static GitHubRepoItem readItem(JsonParser p) throws IOException {
+        long id = 0;
+        String fullName = null;
+        String htmlUrl = null;
+        String language = null;
+        int stars = 0;
+        int forks = 0;
+        OffsetDateTime updatedAt = null;
+        OffsetDateTime createdAt = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "id" -> id = p.getValueAsLong(0);
+                case "full_name" -> fullName = p.getValueAsString();
+                case "html_url" -> htmlUrl = p.getValueAsString();
+                case "language" -> language = p.getValueAsString();
+                case "stargazers_count" -> stars = p.getValueAsInt(0);
+                case "forks_count" -> forks = p.getValueAsInt(0);
+                case "updated_at" -> updatedAt = parseTimestamp(p.getValueAsString());
+                case "created_at" -> createdAt = parseTimestamp(p.getValueAsString());
+                default -> p.skipChildren();
+            }
+        }
+        return new GitHubRepoItem(id, fullName, htmlUrl, language, stars, forks, updatedAt, createdAt);
+    }
+
+    private static List<GitHubRepoItem> skip(JsonParser p) throws IOException {
+        p.skipChildren();
+        return List.of();
+    }
+
+    /**
+     * Fast path for {@code 2024-01-31T12:34:56Z}; anything else goes through {@link OffsetDateTime#parse}.
+     */
+    static OffsetDateTime parseTimestamp(String s) {
+        if (s == null) return null;
+        if (s.length() == 20 && s.charAt(4) == '-' && s.charAt(7) == '-' && s.charAt(10) == 'T'
+                && s.charAt(13) == ':' && s.charAt(16) == ':' && s.charAt(19) == 'Z') {
+            return OffsetDateTime.of(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10),
+                    digits(s, 11, 13), digits(s, 14, 16), digits(s, 17, 19), 0, ZoneOffset.UTC);
+        }
+        return OffsetDateTime.parse(s);
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("bad timestamp: " + s);
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,342 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side view of GitHub's rate limit per token, fed from {@code X-RateLimit-*} and {@code Retry-After}
+ * on every response. Each outbound call leases the token with the most remaining budget; when every token is
+ * spent the call waits up to {@code maxWaitMillis} for the next window, or is shed with a 429 without
+ * touching GitHub.
+ * <p>
+ * REST search and GraphQL are separate budgets on GitHub (30 searches a minute against 5000 points an hour), so
+ * each token keeps one per {@link Resource}, and a response updates the one its {@code X-RateLimit-Resource} names.
+ */
+@Component
+@Slf4j
+public class GitHubTokenScheduler {
+    static final String REMAINING = "X-RateLimit-Remaining";
+    static final String RESET = "X-RateLimit-Reset";
+    static final String LIMIT = "X-RateLimit-Limit";
+    static final String RETRY_AFTER = "Retry-After";
+    static final String RESOURCE = "X-RateLimit-Resource";
+
+    private final Map<Resource, List<TokenBudget>> budgets = new EnumMap<>(Resource.class);
+    private final Resource searchResource;
+    private final long maxWaitMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition budgetChanged = lock.newCondition();
+
+    private final LongAdder leased = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    @Autowired
+    public GitHubTokenScheduler(@Value("${github.token:}") String token,
+                                @Value("${github.tokens:}") List<String> tokens,
+                                @Value("${github.rateLimit.initialBudget:30}") int initialBudget,
+                                @Value("${github.rateLimit.windowMillis:60000}") long windowMillis,
+                                @Value("${github.rateLimit.maxWaitMillis:2000}") long maxWaitMillis,
+                                @Value("${github.rateLimit.graphqlInitialBudget:5000}") int graphQlInitialBudget,
+                                @Value("${github.rateLimit.graphqlWindowMillis:3600000}") long graphQlWindowMillis,
+                                @Value("${github.graphql.enabled:false}") boolean graphQlSearch) {
+        this(merge(token, tokens), initialBudget, windowMillis, graphQlInitialBudget, graphQlWindowMillis,
+                graphQlSearch ? Resource.GRAPHQL : Resource.SEARCH, maxWaitMillis, System::currentTimeMillis);
+    }
+
+    GitHubTokenScheduler(List<String> tokens, int initialBudget, long windowMillis, long maxWaitMillis, LongSupplier clock) {
+        this(tokens, initialBudget, windowMillis, 5000, 3_600_000, Resource.SEARCH, maxWaitMillis, clock);
+    }
+
+    GitHubTokenScheduler(List<String> tokens, int initialBudget, long windowMillis, int graphQlInitialBudget,
+                         long graphQlWindowMillis, Resource searchResource, long maxWaitMillis, LongSupplier clock) {
+        List<String> named = tokens.isEmpty() ? Collections.singletonList(null) : tokens;
+        budgets.put(Resource.SEARCH, named.stream()
+                .map(t -> new TokenBudget(t, initialBudget, windowMillis)).toList());
+        budgets.put(Resource.GRAPHQL, named.stream()
+                .map(t -> new TokenBudget(t, graphQlInitialBudget, graphQlWindowMillis)).toList());
+        this.searchResource = searchResource;
+        this.maxWaitMillis = maxWaitMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Leases the token with the most headroom on {@code resource}, waiting up to {@code maxWaitMillis} for one to
+     * free up.
+     */
+    public Lease acquire(Resource resource) {
+        return acquire(resource, maxWaitMillis);
+    }
+
+    /**
+     * Leases a token only if one has budget right now; for callers that must not block.
+     */
+    public Lease acquireNow(Resource resource) {
+        return acquire(resource, 0);
+    }
+
+    /**
+     * The budget repository searches spend: GraphQL points with {@code github.graphql.enabled}, else REST search.
+     */
+    public Resource searchResource() {
+        return searchResource;
+    }
+
+    /**
+     * Calls {@code resource} can still make across all tokens before the next window.
+     */
+    public long availableBudget(Resource resource) {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            long available = 0;
+            for (TokenBudget b : budgets.get(resource)) {
+                b.rollWindow(now);
+                available += b.isBlocked(now) ? 0 : Math.max(0, b.remaining);
+            }
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SchedulerStats stats() {
+        return new SchedulerStats(budgets.get(searchResource).size(), leased.sum(), queued.sum(), shed.sum());
+    }
+
+    private Lease acquire(Resource resource, long waitMillis) {
+        List<TokenBudget> candidates = budgets.get(resource);
+        long deadline = clock.getAsLong() + waitMillis;
+        boolean waiting = false;
+        lock.lock();
+        try {
+            while (true) {
+                long now = clock.getAsLong();
+                TokenBudget best = pickBest(candidates, now);
+                if (best != null) {
+                    best.reserve(now);
+                    leased.increment();
+                    return new Lease(best, resource);
+                }
+                long readyAt = earliestReady(candidates, now);
+                if (readyAt > deadline) {
+                    shed.increment();
+                    log.atWarn().log("Shedding GitHub call: all {} {} budgets spent for another {} ms",
+                            candidates.size(), resource.header(), readyAt - now);
+                    throw new GitHubApiException(429, "GitHub rate budget exhausted; next window in " + (readyAt - now) + " ms", null);
+                }
+                if (!waiting) {
+                    queued.increment();
+                    waiting = true;
+                }
+                budgetChanged.await(Math.max(1, readyAt - now), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted waiting for GitHub rate budget", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static TokenBudget pickBest(List<TokenBudget> candidates, long now) {
+        TokenBudget best = null;
+        for (TokenBudget b : candidates) {
+            b.rollWindow(now);
+            if (b.isBlocked(now) || b.remaining <= 0) continue;
+            if (best == null || b.remaining > best.remaining) best = b;
+        }
+        return best;
+    }
+
+    private static long earliestReady(List<TokenBudget> candidates, long now) {
+        long earliest = Long.MAX_VALUE;
+        for (TokenBudget b : candidates) {
+            long readyAt = Math.max(b.blockedUntil, b.remaining > 0 ? now : b.resetAt);
+            earliest = Math.min(earliest, readyAt);
+        }
+        return earliest;
+    }
+
+    private void record(TokenBudget leased, Resource resource, int status, Function<String, String> headers) {
+        Long remaining = parse(headers.apply(REMAINING));
+        Long reset = parse(headers.apply(RESET));
+        Long limit = parse(headers.apply(LIMIT));
+        Long retryAfter = parse(headers.apply(RETRY_AFTER));
+        String named = headers.apply(RESOURCE);
+        Resource counted = named == null ? resource : Resource.fromHeader(named);
+        lock.lock();
+        try {
+            if (counted == null) {
+                // a budget this scheduler does not track (e.g. core); only a Retry-After still applies to the token
+                if (retryAfter != null) leased.blockedUntil = clock.getAsLong() + retryAfter * 1000;
+                budgetChanged.signalAll();
+                return;
+            }
+            TokenBudget budget = counted == resource ? leased : budgetOf(counted, leased.token);
+            long now = clock.getAsLong();
+            if (limit != null) budget.limit = limit.intValue();
+            if (reset != null && reset * 1000 != budget.resetAt) {
+                budget.resetAt = reset * 1000;
+                if (remaining != null) budget.remaining = remaining.intValue();
+            } else if (remaining != null) {
+                budget.remaining = Math.min(budget.remaining, remaining.intValue());
+            }
+            if (budget.remaining <= 0 && budget.resetAt == 0) {
+                budget.resetAt = now + budget.windowMillis;
+            }
+            if (retryAfter != null) {
+                budget.blockedUntil = now + retryAfter * 1000;
+            } else if ((status == 403 || status == 429) && remaining != null && remaining == 0) {
+                budget.blockedUntil = Math.max(budget.blockedUntil, budget.resetAt);
+            }
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TokenBudget budgetOf(Resource resource, String token) {
+        for (TokenBudget b : budgets.get(resource)) {
+            if (Objects.equals(b.token, token)) return b;
+        }
+        throw new IllegalStateException("No " + resource.header() + " budget for token");
+    }
+
+    private void restore(TokenBudget budget) {
+        lock.lock();
+        try {
+            budget.remaining = Math.min(budget.limit, budget.remaining + 1);
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Long parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static List<String> merge(String token, List<String> tokens) {
+        Set<String> all = new LinkedHashSet<>();
+        if (token != null && !token.isBlank()) all.add(token.trim());
+        if (tokens != null) tokens.stream().filter(t -> t != null && !t.isBlank()).map(String::trim).forEach(all::add);
+        return List.copyOf(all);
+    }
+
+    /**
+     * A reserved unit of one token's budget; report the response through {@link #complete}.
+     */
+    public final class Lease {
+        private final TokenBudget budget;
+        private final Resource resource;
+
+        private Lease(TokenBudget budget, Resource resource) {
+            this.budget = budget;
+            this.resource = resource;
+        }
+
+        /**
+         * Token to authenticate with, or {@code null} for anonymous calls.
+         */
+        public String token() {
+            return budget.token;
+        }
+
+        public void complete(int status, Function<String, String> headers) {
+            record(budget, resource, status, headers);
+        }
+
+        /**
+         * Returns the reserved unit of a call that never reached GitHub.
+         */
+        public void cancel() {
+            restore(budget);
+        }
+    }
+
+    /**
+     * A rate-limit budget as GitHub names it in {@code X-RateLimit-Resource}.
+     */
+    public enum Resource {
+        SEARCH, GRAPHQL;
+
+        public String header() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /** The tracked budget {@code value} names, or {@code null} for one this scheduler does not track. */
+        static Resource fromHeader(String value) {
+            for (Resource r : values()) {
+                if (r.header().equalsIgnoreCase(value.trim())) return r;
+            }
+            return null;
+        }
+    }
+
+    public record SchedulerStats(
+            int tokens,
+            long leased,
+            long queued,
+            long shed
+    ) {}
+
+    /**
+     * Mutable per-token state, guarded by the scheduler lock.
+     */
+    private static final class TokenBudget {
+        private final String token;
+        private final long windowMillis;
+        private int limit;
+        private int remaining;
+        private long resetAt;
+        private long blockedUntil;
+
+        private TokenBudget(String token, int initialBudget, long windowMillis) {
+            this.token = token;
+            this.windowMillis = windowMillis;
+            this.limit = initialBudget;
+            this.remaining = initialBudget;
+        }
+
+        private void rollWindow(long now) {
+            if (resetAt != 0 && now >= resetAt) {
+                remaining = limit;
+                resetAt = 0;
+            }
+        }
+
+        private boolean isBlocked(long now) {
+            return now < blockedUntil;
+        }
+
+        private void reserve(long now) {
+            remaining--;
+            if (resetAt == 0) resetAt = now + windowMillis;
+        }
+    }
+}
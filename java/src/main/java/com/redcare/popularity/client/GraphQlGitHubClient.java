@@ -0,0 +1,29 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * {@link GitHubClient} backed by GraphQL search: repositories come back with only the fields
+ * {@link com.redcare.popularity.client.model.GitHubRepoItem} maps, and concurrent searches share one request through
+ * {@link GraphQlSearchBatcher}. GraphQL responses carry no validators, so conditional searches are plain searches
+ * and cached pages are refetched instead of revalidated.
+ */
+public class GraphQlGitHubClient implements GitHubClient {
+    private final GraphQlSearchBatcher batcher;
+
+    public GraphQlGitHubClient(GraphQlSearchBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    @Override
+    public GitHubSearchResponse searchRepositories(String q, int perPage, int page) {
+        return batcher.search(q, perPage, page);
+    }
+
+    @Override
+    public ResponseEntity<GitHubSearchResponse> searchRepositoriesConditionally(String q, int perPage, int page,
+                                                                               String ifNoneMatch, String ifModifiedSince) {
+        return ResponseEntity.ok(batcher.search(q, perPage, page));
+    }
+}
@@ -0,0 +1,209 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.client.model.GraphQlRequest;
+import com.redcare.popularity.client.model.GraphQlSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Combines searches issued at about the same time into one aliased GraphQL request. The first caller of a batch
+ * waits up to {@code lingerMillis} for others to join and then sends it; a caller that fills the batch to
+ * {@code maxBatch} sends it straight away. Either way the request runs on a caller's thread, so no extra pool is
+ * needed, and every caller waits for its own alias's result.
+ */
+@Slf4j
+public class GraphQlSearchBatcher {
+    static final String FIELDS = "repositoryCount nodes { ... on Repository { databaseId nameWithOwner url "
+            + "primaryLanguage { name } stargazerCount forkCount updatedAt createdAt } }";
+
+    private final GitHubGraphQlClient client;
+    private final int maxBatch;
+    private final long lingerMillis;
+    private final long waitTimeoutMillis;
+
+    private final Object lock = new Object();
+    private List<Pending> open = new ArrayList<>();
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    public GraphQlSearchBatcher(GitHubGraphQlClient client, int maxBatch, long lingerMillis, long waitTimeoutMillis) {
+        this.client = client;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerMillis = lingerMillis;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public GitHubSearchResponse search(String q, int perPage, int page) {
+        Pending mine = new Pending(q, perPage, page, new CompletableFuture<>());
+        List<Pending> full = null;
+        boolean first;
+        synchronized (lock) {
+            open.add(mine);
+            first = open.size() == 1;
+            if (open.size() >= maxBatch) {
+                full = open;
+                open = new ArrayList<>();
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (first) {
+            linger(mine);
+            List<Pending> batch = null;
+            synchronized (lock) {
+                // a caller may have filled and sent the batch while we waited
+                if (!open.isEmpty() && open.get(0) == mine) {
+                    batch = open;
+                    open = new ArrayList<>();
+                }
+            }
+            if (batch != null) send(batch);
+        }
+        return await(mine);
+    }
+
+    public BatchStats stats() {
+        return new BatchStats(batches.sum(), searches.sum());
+    }
+
+    private void send(List<Pending> batch) {
+        batches.increment();
+        searches.add(batch.size());
+        GraphQlSearchResponse response;
+        try {
+            response = client.search(request(batch));
+        } catch (RuntimeException ex) {
+            batch.forEach(p -> p.result().completeExceptionally(ex));
+            return;
+        }
+        Map<String, GraphQlSearchResponse.Connection> data = response.data() == null ? Map.of() : response.data();
+        for (int i = 0; i < batch.size(); i++) {
+            String alias = alias(i);
+            GraphQlSearchResponse.Connection connection = data.get(alias);
+            if (connection != null) {
+                batch.get(i).result().complete(toSearchResponse(connection));
+            } else {
+                batch.get(i).result().completeExceptionally(failure(alias, response.errors()));
+            }
+        }
+        log.atDebug().log("Sent {} searches in one GraphQL request", batch.size());
+    }
+
+    static GraphQlRequest request(List<Pending> batch) {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            if (i > 0) declarations.append(", ");
+            declarations.append("$q").append(i).append(": String!, $n").append(i).append(": Int!, $a").append(i).append(": String");
+            selections.append(alias(i)).append(": search(query: $q").append(i).append(", type: REPOSITORY, first: $n")
+                    .append(i).append(", after: $a").append(i).append(") { ...page } ");
+            variables.put("q" + i, p.q());
+            variables.put("n" + i, p.perPage());
+            variables.put("a" + i, cursorBefore(p.perPage(), p.page()));
+        }
+        String query = "query(" + declarations + ") { " + selections + "} fragment page on SearchResultItemConnection { "
+                + FIELDS + " }";
+        return new GraphQlRequest(query, variables);
+    }
+
+    /**
+     * GraphQL search pages by cursor. GitHub's search cursors encode the offset ({@code cursor:N}), which lets a
+     * REST-style page number be turned into the cursor of the item just before it.
+     */
+    static String cursorBefore(int perPage, int page) {
+        if (page <= 1) return null;
+        long offset = (long) (page - 1) * perPage;
+        return Base64.getEncoder().encodeToString(("cursor:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GitHubSearchResponse toSearchResponse(GraphQlSearchResponse.Connection connection) {
+        List<GitHubRepoItem> items = new ArrayList<>(connection.nodes() == null ? 0 : connection.nodes().size());
+        if (connection.nodes() != null) {
+            for (GraphQlSearchResponse.Node node : connection.nodes()) {
+                if (node == null || node.databaseId() == null) continue;
+                items.add(new GitHubRepoItem(node.databaseId(), node.nameWithOwner(), node.url(),
+                        node.primaryLanguage() == null ? null : node.primaryLanguage().name(),
+                        node.stargazerCount(), node.forkCount(), node.updatedAt(), node.createdAt()));
+            }
+        }
+        return new GitHubSearchResponse(connection.repositoryCount(), items);
+    }
+
+    private static GitHubApiException failure(String alias, List<GraphQlSearchResponse.Error> errors) {
+        if (errors != null) {
+            for (GraphQlSearchResponse.Error error : errors) {
+                boolean forAlias = error.path() == null || error.path().isEmpty() || alias.equals(error.path().get(0));
+                if (!forAlias) continue;
+                String type = error.type() == null ? "" : error.type().toUpperCase(Locale.ROOT);
+                int status = switch (type) {
+                    case "RATE_LIMITED" -> 429;
+                    case "INVALID_ARGUMENTS", "UNPROCESSABLE" -> 422;
+                    default -> 502;
+                };
+                return new GitHubApiException(status, "GraphQL search failed: " + error.message(), null);
+            }
+        }
+        return new GitHubApiException(502, "GraphQL search returned no data for " + alias, null);
+    }
+
+    private static String alias(int i) {
+        return "s" + i;
+    }
+
+    /** Waits for others to join, returning early if a caller that filled the batch has already sent it. */
+    private void linger(Pending mine) {
+        try {
+            mine.result().get(lingerMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // still open: we send it; already failed: await() rethrows
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private GitHubSearchResponse await(Pending pending) {
+        try {
+            return pending.result().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new GitHubApiException(504, "Timed out waiting for batched GraphQL search", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted waiting for batched GraphQL search", ex);
+        }
+    }
+
+    record Pending(
+            String q,
+            int perPage,
+            int page,
+            CompletableFuture<GitHubSearchResponse> result
+    ) {}
+
+    public record BatchStats(
+            long batches,
+            long searches
+    ) {}
+}
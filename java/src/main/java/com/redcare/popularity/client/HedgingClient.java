@@ -0,0 +1,123 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feign transport decorator for tail latency: if an attempt is still running once it passes the
+ * configured latency percentile of recent calls, a second identical request is sent and the first
+ * response to arrive wins. The losing response is closed when it lands.
+ */
+@Slf4j
+public class HedgingClient implements Client {
+    private final Client delegate;
+    private final Executor executor;
+    private final LatencyTracker latencies;
+    private final long minDelayNanos;
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public HedgingClient(Client delegate, Executor executor, double percentile, long minDelayMillis) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.latencies = new LatencyTracker(percentile);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        long threshold = latencies.thresholdNanos();
+        if (threshold < 0 || request.httpMethod() != Request.HttpMethod.GET) {
+            return timed(request, options);
+        }
+        CompletableFuture<Response> primary = submit(request, options);
+        try {
+            return primary.get(Math.max(threshold, minDelayNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException slow) {
+            hedged.increment();
+            log.atDebug().log("Hedging {} after {} ms", request.url(), TimeUnit.NANOSECONDS.toMillis(threshold));
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for GitHub");
+        }
+
+        CompletableFuture<Response> hedge = submit(request, options);
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((r, ex) -> settle(winner, failures, r, ex, false));
+        hedge.whenComplete((r, ex) -> settle(winner, failures, r, ex, true));
+        try {
+            return winner.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for GitHub");
+        }
+    }
+
+    public long hedgedCount() {
+        return hedged.sum();
+    }
+
+    public long hedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    private void settle(CompletableFuture<Response> winner, AtomicInteger failures, Response response,
+                        Throwable error, boolean isHedge) {
+        if (error == null) {
+            if (winner.complete(response)) {
+                if (isHedge) hedgeWins.increment();
+            } else {
+                response.close();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private CompletableFuture<Response> submit(Request request, Request.Options options) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timed(request, options);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor);
+    }
+
+    private Response timed(Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        Response response = delegate.execute(request, options);
+        latencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    private static IOException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof java.util.concurrent.CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof UncheckedIOException io) return io.getCause();
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        if (cause instanceof Error error) throw error;
+        return new IOException(cause);
+    }
+}
@@ -0,0 +1,49 @@
+package com.redcare.popularity.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding window of recent upstream latencies. The percentile is recomputed every
+ * {@code RECOMPUTE_EVERY} samples rather than per call, so reads are a single volatile load.
+ */
+final class LatencyTracker {
+    private static final int WINDOW = 512;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private volatile long thresholdNanos = -1;
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % WINDOW), nanos);
+        if (n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(n + 1, WINDOW));
+        }
+    }
+
+    /**
+     * Current latency at the configured percentile, or -1 until enough samples have been seen.
+     */
+    long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    private void recompute(int size) {
+        long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = samples.get(i);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+        thresholdNanos = snapshot[Math.max(0, index)];
+    }
+}
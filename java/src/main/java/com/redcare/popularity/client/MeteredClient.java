@@ -0,0 +1,66 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Innermost Feign transport decorator: times every HTTP exchange with GitHub (each retry and hedge separately)
+ * as {@code github.client.requests}, tagged with the status code and a normalized outcome.
+ */
+public class MeteredClient implements Client {
+    static final String METRIC = "github.client.requests";
+
+    private final Client delegate;
+    private final MeterRegistry registry;
+
+    public MeteredClient(Client delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Response response = delegate.execute(request, options);
+            record(start, String.valueOf(response.status()), outcome(response));
+            return response;
+        } catch (IOException ex) {
+            record(start, "IO_ERROR", "IO_ERROR");
+            throw ex;
+        }
+    }
+
+    private void record(long start, String status, String outcome) {
+        Timer.builder(METRIC)
+                .description("HTTP exchanges with the GitHub API")
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /** Same classes the error decoder produces; a 403 counts as rate limited when GitHub says the budget is spent. */
+    static String outcome(Response response) {
+        int status = response.status();
+        if (status == 304) return "NOT_MODIFIED";
+        if (status < 400) return "SUCCESS";
+        if (status == 429 || (status == 403 && rateLimitSpent(response))) return "RATE_LIMITED";
+        if (status < 500) return "CLIENT_ERROR";
+        return "SERVER_ERROR";
+    }
+
+    private static boolean rateLimitSpent(Response response) {
+        Collection<String> remaining = response.headers().get(GitHubTokenScheduler.REMAINING);
+        Collection<String> retryAfter = response.headers().get(HttpHeaders.RETRY_AFTER);
+        return (remaining != null && remaining.contains("0")) || (retryAfter != null && !retryAfter.isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.redcare.popularity.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.brotli.BrotliInterceptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the pooled OkHttp client behind the Feign transport. Idle connections to GitHub are kept for
+ * {@code keepAliveMillis} and reused, HTTP/2 is negotiated over TLS so concurrent calls multiplex on one connection,
+ * and bodies are requested as br/gzip and decoded before the streaming decoder reads them.
+ */
+public final class PooledHttpTransport {
+    private PooledHttpTransport() {
+    }
+
+    public static OkHttpClient create(Settings settings, MeterRegistry registry) {
+        ConnectionPool pool = new ConnectionPool(settings.maxIdleConnections(), settings.keepAliveMillis(), TimeUnit.MILLISECONDS);
+        new OkHttpConnectionPoolMetrics(pool, "github.http.pool", Tags.empty(), settings.maxIdleConnections()).bindTo(registry);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .protocols(settings.http2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .eventListenerFactory(TransportMetricsListener.factory(registry));
+        if (settings.compression()) {
+            builder.addInterceptor(BrotliInterceptor.INSTANCE);
+        } else {
+            builder.addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                    .header("Accept-Encoding", "identity").build()));
+        }
+        return builder.build();
+    }
+
+    public record Settings(
+            int maxIdleConnections,
+            long keepAliveMillis,
+            boolean http2,
+            boolean compression
+    ) {}
+}
@@ -0,0 +1,60 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.ConcurrencyLimitExceededException;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feign transport decorator: leases a token from {@link GitHubTokenScheduler} before each call,
+ * authenticates with it, and feeds the response's rate-limit headers back to the scheduler. A call shed by the
+ * concurrency limit returns its token.
+ */
+public class RateLimitAwareClient implements Client {
+    private final Client delegate;
+    private final GitHubTokenScheduler scheduler;
+
+    public RateLimitAwareClient(Client delegate, GitHubTokenScheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        GitHubTokenScheduler.Lease lease = scheduler.acquire(resourceOf(request));
+        Response response;
+        try {
+            response = delegate.execute(authorize(request, lease.token()), options);
+        } catch (ConcurrencyLimitExceededException ex) {
+            // shed before reaching GitHub, so the call cost no budget
+            lease.cancel();
+            throw ex;
+        }
+        lease.complete(response.status(), name -> firstHeader(response, name));
+        return response;
+    }
+
+    private static GitHubTokenScheduler.Resource resourceOf(Request request) {
+        return request.url().endsWith("/graphql") ? GitHubTokenScheduler.Resource.GRAPHQL : GitHubTokenScheduler.Resource.SEARCH;
+    }
+
+    private static Request authorize(Request request, String token) {
+        if (token == null) return request;
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.put(HttpHeaders.AUTHORIZATION, List.of("Bearer " + token));
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    private static String firstHeader(Response response, String name) {
+        Collection<String> values = response.headers().get(name);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+}
@@ -0,0 +1,81 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link GitHubClient}: same endpoint, headers and error normalization,
+ * but the call completes on the WebClient event loop instead of holding a request thread.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveGitHubClient {
+    private final WebClient webClient;
+    private final Duration responseTimeout;
+
+    public ReactiveGitHubClient(WebClient.Builder builder,
+                                GitHubTokenScheduler tokenScheduler,
+                                @Value("${github.apiBaseUrl:https://api.github.com}") String baseUrl,
+                                @Value("${github.reactive.responseTimeoutMillis:5000}") long responseTimeoutMillis) {
+        this.webClient = builder
+                .baseUrl(baseUrl)
+                .defaultHeaders(headers -> {
+                    headers.set(HttpHeaders.ACCEPT, GitHubApiConventions.ACCEPT);
+                    headers.set(GitHubApiConventions.API_VERSION_HEADER, GitHubApiConventions.API_VERSION);
+                    headers.set(HttpHeaders.USER_AGENT, GitHubApiConventions.USER_AGENT);
+                })
+                .filter(rateLimited(tokenScheduler))
+                .build();
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMillis);
+    }
+
+    public Mono<GitHubSearchResponse> searchRepositories(String q, int perPage, int page) {
+        return webClient.get()
+                .uri(uri -> uri.path("/search/repositories")
+                        .queryParam("q", "{q}")
+                        .queryParam("per_page", perPage)
+                        .queryParam("page", page)
+                        .build(Map.of("q", q)))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, ReactiveGitHubClient::toException)
+                .bodyToMono(GitHubSearchResponse.class)
+                .timeout(responseTimeout);
+    }
+
+    /**
+     * Non-blocking use of the shared token scheduler: a call either gets budget immediately or is shed with 429.
+     */
+    private static ExchangeFilterFunction rateLimited(GitHubTokenScheduler tokenScheduler) {
+        return (request, next) -> Mono.defer(() -> {
+            GitHubTokenScheduler.Lease lease = tokenScheduler.acquireNow(GitHubTokenScheduler.Resource.SEARCH);
+            ClientRequest authorized = lease.token() == null ? request
+                    : ClientRequest.from(request).headers(h -> h.setBearerAuth(lease.token())).build();
+            return next.exchange(authorized)
+                    .doOnNext(response -> lease.complete(response.statusCode().value(),
+                            name -> response.headers().asHttpHeaders().getFirst(name)));
+        });
+    }
+
+    private static Mono<GitHubApiException> toException(ClientResponse response) {
+        int status = response.statusCode().value();
+        HttpStatus resolved = HttpStatus.resolve(status);
+        String reason = resolved != null ? resolved.getReasonPhrase() : String.valueOf(status);
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> new GitHubApiException(GitHubApiConventions.normalizeStatus(status, body), reason, null));
+    }
+}
@@ -0,0 +1,55 @@
+package com.redcare.popularity.client;
+
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body that runs {@code release} exactly once when it is closed, for decorators that hold a slot for the
+ * whole exchange rather than only until the headers arrive.
+ */
+final class ReleasingBody implements Response.Body {
+    private final Response.Body body;
+    private final Runnable release;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ReleasingBody(Response.Body body, Runnable release) {
+        this.body = body;
+        this.release = release;
+    }
+
+    @Override
+    public Integer length() {
+        return body.length();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return body.isRepeatable();
+    }
+
+    @Override
+    public InputStream asInputStream() throws IOException {
+        return body.asInputStream();
+    }
+
+    @Override
+    public Reader asReader(Charset charset) throws IOException {
+        return body.asReader(charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            body.close();
+        } finally {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+}
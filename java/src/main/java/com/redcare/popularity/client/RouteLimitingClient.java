@@ -0,0 +1,65 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent exchanges per route (scheme, host and port) until their response body is closed. Over HTTP/1.1
+ * every exchange holds its own connection, so this is also the per-route connection limit; over HTTP/2 it bounds
+ * the streams multiplexed on the shared connection. A call waits up to its connect timeout for a slot and then fails
+ * with an {@link IOException}, which the retryer treats like any other connect failure.
+ */
+public class RouteLimitingClient implements Client {
+    private final Client delegate;
+    private final int maxPerRoute;
+    private final ConcurrentHashMap<String, Semaphore> routes = new ConcurrentHashMap<>();
+
+    public RouteLimitingClient(Client delegate, int maxPerRoute) {
+        this.delegate = delegate;
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String route = route(request.url());
+        Semaphore slots = routes.computeIfAbsent(route, r -> new Semaphore(maxPerRoute));
+        try {
+            if (!slots.tryAcquire(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("No free connection slot for " + route + " within the connect timeout");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a connection slot for " + route, ex);
+        }
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+        if (response.body() == null) {
+            slots.release();
+            return response;
+        }
+        return response.toBuilder().body(new ReleasingBody(response.body(), slots::release)).build();
+    }
+
+    int available(String route) {
+        Semaphore slots = routes.get(route);
+        return slots == null ? maxPerRoute : slots.availablePermits();
+    }
+
+    static String route(String url) {
+        URI uri = URI.create(url);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+}
@@ -0,0 +1,69 @@
+package com.redcare.popularity.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+/**
+ * Per-call OkHttp listener that shows what pooling and compression save: new connections (by protocol), TLS
+ * handshakes, whether each call reused a pooled connection, and response body bytes as read off the wire, i.e.
+ * before gzip/br decoding.
+ */
+public class TransportMetricsListener extends EventListener {
+    static final String CONNECTIONS = "github.http.connections.opened";
+    static final String HANDSHAKES = "github.http.tls.handshakes";
+    static final String ACQUIRED = "github.http.connections.acquired";
+    static final String RESPONSE_BYTES = "github.http.response.bytes";
+
+    private final MeterRegistry registry;
+    private boolean connected;
+
+    TransportMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static EventListener.Factory factory(MeterRegistry registry) {
+        return call -> new TransportMetricsListener(registry);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connected = true;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        registry.counter(CONNECTIONS, "protocol", protocol == null ? "unknown" : protocol.toString()).increment();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        registry.counter(HANDSHAKES).increment();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        Counter.builder(ACQUIRED)
+                .tag("reused", String.valueOf(!connected))
+                .tag("protocol", connection.protocol().toString())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        DistributionSummary.builder(RESPONSE_BYTES)
+                .description("GitHub response body bytes on the wire, before decompression")
+                .baseUnit("bytes")
+                .register(registry)
+                .record(byteCount);
+    }
+}
@@ -12,5 +12,11 @@ public record GitHubRepoItem(
         String language,
         @JsonProperty("stargazers_count") int stargazersCount,
         @JsonProperty("forks_count") int forksCount,
-        @JsonProperty("updated_at") OffsetDateTime updatedAt
-) {}
+        @JsonProperty("updated_at") OffsetDateTime updatedAt,
+        @JsonProperty("created_at") OffsetDateTime createdAt
+) {
+    public GitHubRepoItem(long id, String fullName, String htmlUrl, String language,
+                          int stargazersCount, int forksCount, OffsetDateTime updatedAt) {
+        this(id, fullName, htmlUrl, language, stargazersCount, forksCount, updatedAt, null);
+    }
+}
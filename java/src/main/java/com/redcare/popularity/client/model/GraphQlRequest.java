@@ -0,0 +1,8 @@
+package com.redcare.popularity.client.model;
+
+import java.util.Map;
+
+public record GraphQlRequest(
+        String query,
+        Map<String, Object> variables
+) {}
@@ -0,0 +1,50 @@
+package com.redcare.popularity.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response to an aliased GraphQL search: one {@code data} entry per alias, {@code null} for an alias that failed,
+ * with the reason in {@code errors}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GraphQlSearchResponse(
+        Map<String, Connection> data,
+        List<Error> errors
+) {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Connection(
+            long repositoryCount,
+            List<Node> nodes
+    ) {}
+
+    /**
+     * A search node; only repositories carry fields, so other node types bind with a null {@code databaseId}.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Node(
+            Long databaseId,
+            String nameWithOwner,
+            String url,
+            Language primaryLanguage,
+            int stargazerCount,
+            int forkCount,
+            OffsetDateTime updatedAt,
+            OffsetDateTime createdAt
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Language(
+            String name
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Error(
+            String type,
+            String message,
+            List<Object> path
+    ) {}
+}
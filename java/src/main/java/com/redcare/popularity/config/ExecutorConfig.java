@@ -0,0 +1,123 @@
+package com.redcare.popularity.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Bounded pool for parallel upstream page fetches. When the queue is full the submitting
+     * request thread runs the fetch itself, which throttles callers instead of growing the backlog.
+     */
+    @Bean(name = "gitHubFanOutExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService gitHubFanOutExecutor(@Value("${github.fanOut.threads:8}") int threads,
+                                                @Value("${github.fanOut.queueCapacity:64}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), namedThreads("github-fanout-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Virtual-thread variant, active with {@code spring.threads.virtual.enabled=true} on Java 21+.
+     * Threads are cheap, so there is no queue; the cap only bounds outstanding upstream calls.
+     */
+    @Bean(name = "gitHubFanOutExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService virtualGitHubFanOutExecutor(
+            @Value("${github.fanOut.virtualMaxConcurrency:256}") int maxConcurrency) {
+        ThreadFactory virtualThreads = new VirtualThreadTaskExecutor("github-fanout-").getVirtualThreadFactory();
+        return new ThreadPoolExecutor(0, maxConcurrency, 10, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), virtualThreads, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs hedged GitHub attempts. No queue: when every thread is busy the caller runs the attempt
+     * itself, which simply means that call is not hedged.
+     */
+    @Bean(name = "gitHubHedgeExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService gitHubHedgeExecutor(@Value("${github.hedging.maxThreads:32}") int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                namedThreads("github-hedge-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(name = "gitHubHedgeExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService virtualGitHubHedgeExecutor(@Value("${github.hedging.maxThreads:32}") int maxThreads) {
+        ThreadFactory virtualThreads = new VirtualThreadTaskExecutor("github-hedge-").getVirtualThreadFactory();
+        return new ThreadPoolExecutor(0, maxThreads, 10, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                virtualThreads, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Shared by all batch requests, so concurrent batches together never run more than {@code threads}
+     * searches at once; each batch additionally caps its own in-flight specs.
+     */
+    @Bean(name = "gitHubBatchExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService gitHubBatchExecutor(@Value("${github.batch.threads:8}") int threads,
+                                               @Value("${github.batch.queueCapacity:32}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), namedThreads("github-batch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Bean(name = "gitHubBatchExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService virtualGitHubBatchExecutor(@Value("${github.batch.threads:8}") int threads) {
+        ThreadFactory virtualThreads = new VirtualThreadTaskExecutor("github-batch-").getVirtualThreadFactory();
+        return new ThreadPoolExecutor(0, threads, 10, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                virtualThreads, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs live searches under the stale-fallback latency budget and background revalidations. Rejects instead of
+     * running on the caller when full: the request then calls GitHub inline, and a revalidation is skipped.
+     */
+    @Bean(name = "gitHubRevalidationExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService gitHubRevalidationExecutor(@Value("${github.staleFallback.threads:8}") int threads,
+                                                      @Value("${github.staleFallback.queueCapacity:32}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), namedThreads("github-revalidate-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Bean(name = "gitHubRevalidationExecutor", destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService virtualGitHubRevalidationExecutor(
+            @Value("${github.staleFallback.virtualMaxConcurrency:256}") int maxConcurrency) {
+        ThreadFactory virtualThreads = new VirtualThreadTaskExecutor("github-revalidate-").getVirtualThreadFactory();
+        return new ThreadPoolExecutor(0, maxConcurrency, 10, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                virtualThreads, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.redcare.popularity.config;
+
+import com.redcare.popularity.exception.ConcurrencyLimitExceededException;
+import com.redcare.popularity.exception.GitHubApiException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class GitHubCircuitBreakerConfig {
+
+    /**
+     * Breakers around the GitHub Feign client, one per client method. Only upstream failures count: 5xx answers and
+     * transport errors. A 304, a rate limit or another 4xx is a normal answer, and a call shed by the concurrency
+     * limit never reached GitHub. Calls run on the caller's thread without a time limit; the transport timeouts and
+     * the stale-fallback latency budget bound them instead.
+     */
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> gitHubCircuitBreakers(
+            @Value("${github.circuitBreaker.slidingWindowSize:50}") int slidingWindowSize,
+            @Value("${github.circuitBreaker.minimumCalls:20}") int minimumCalls,
+            @Value("${github.circuitBreaker.failureRateThreshold:50}") float failureRateThreshold,
+            @Value("${github.circuitBreaker.openMillis:30000}") long openMillis) {
+        CircuitBreakerConfig breaker = CircuitBreakerConfig.custom()
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(openMillis))
+                .recordException(GitHubCircuitBreakerConfig::isUpstreamFailure)
+                .build();
+        return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
+                .circuitBreakerConfig(breaker)
+                .timeLimiterConfig(TimeLimiterConfig.ofDefaults())
+                .build());
+    }
+
+    static boolean isUpstreamFailure(Throwable failure) {
+        if (failure instanceof ConcurrencyLimitExceededException) return false;
+        if (failure instanceof GitHubApiException gitHub) return gitHub.getStatusCode() >= 500;
+        return true;
+    }
+}
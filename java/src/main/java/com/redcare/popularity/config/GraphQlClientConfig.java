@@ -0,0 +1,34 @@
+package com.redcare.popularity.config;
+
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.GitHubGraphQlClient;
+import com.redcare.popularity.client.GraphQlGitHubClient;
+import com.redcare.popularity.client.GraphQlSearchBatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * With {@code github.graphql.enabled=true}, searches go through GitHub's GraphQL API instead of REST. The REST Feign
+ * client stays registered but is no longer the one injected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "github.graphql.enabled", havingValue = "true")
+public class GraphQlClientConfig {
+
+    @Bean
+    public GraphQlSearchBatcher graphQlSearchBatcher(GitHubGraphQlClient client,
+                                                     @Value("${github.graphql.maxBatch:10}") int maxBatch,
+                                                     @Value("${github.graphql.lingerMillis:5}") long lingerMillis,
+                                                     @Value("${github.graphql.waitTimeoutMillis:10000}") long waitTimeoutMillis) {
+        return new GraphQlSearchBatcher(client, maxBatch, lingerMillis, waitTimeoutMillis);
+    }
+
+    @Bean
+    @Primary
+    public GitHubClient graphQlGitHubClient(GraphQlSearchBatcher batcher) {
+        return new GraphQlGitHubClient(batcher);
+    }
+}
@@ -0,0 +1,28 @@
+package com.redcare.popularity.config;
+
+import com.redcare.popularity.client.PooledHttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HttpTransportConfig {
+
+    /**
+     * Pooled transport for the GitHub Feign client, the default. {@code github.http.client=jdk} falls back to
+     * Feign's {@code HttpURLConnection} client, which has neither pool control nor compression.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "github.http.client", havingValue = "okhttp", matchIfMissing = true)
+    public OkHttpClient gitHubOkHttpClient(MeterRegistry meterRegistry,
+                                           @Value("${github.http.maxIdleConnections:10}") int maxIdleConnections,
+                                           @Value("${github.http.keepAliveMillis:300000}") long keepAliveMillis,
+                                           @Value("${github.http.http2:true}") boolean http2,
+                                           @Value("${github.http.compression:true}") boolean compression) {
+        return PooledHttpTransport.create(
+                new PooledHttpTransport.Settings(maxIdleConnections, keepAliveMillis, http2, compression), meterRegistry);
+    }
+}
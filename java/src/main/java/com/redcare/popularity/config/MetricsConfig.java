@@ -0,0 +1,127 @@
+package com.redcare.popularity.config;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.cache.PeerCache;
+import com.redcare.popularity.cache.RefreshAheadScheduler;
+import com.redcare.popularity.client.AdaptiveConcurrencyLimiter;
+import com.redcare.popularity.client.GitHubTokenScheduler;
+import com.redcare.popularity.client.GraphQlSearchBatcher;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.service.SearchCoalescer;
+import com.redcare.popularity.service.ShardedRankingService;
+import com.redcare.popularity.service.StaleFallback;
+import com.redcare.popularity.tracking.TrackedQueryService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the counters the pipeline components already keep (cache, coalescer, token scheduler, concurrency limit,
+ * local index, stale fallback, refresh-ahead, tracked queries, GraphQL batching, sharded ranking, cluster cache) as
+ * meters, and counts circuit-breaker state transitions. Request-path timers are registered where they are measured.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder pipelineStatsMetrics(GitHubSearchCache cache, SearchCoalescer coalescer,
+                                            GitHubTokenScheduler scheduler, RepositoryIndex index, StaleFallback stale,
+                                            ObjectProvider<RefreshAheadScheduler> refresher, TrackedQueryService tracking,
+                                            ObjectProvider<GraphQlSearchBatcher> graphQl, ShardedRankingService sharding,
+                                            PeerCache peers, AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            FunctionCounter.builder("github.cache.requests", cache, c -> c.stats().hits()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("github.cache.requests", cache, c -> c.stats().misses()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("github.cache.revalidations", cache, c -> c.stats().revalidations()).register(registry);
+            FunctionCounter.builder("github.cache.evictions", cache, c -> c.stats().evictions()).register(registry);
+            Gauge.builder("github.cache.size", cache, c -> c.stats().size()).register(registry);
+
+            FunctionCounter.builder("popularity.coalescer.searches", coalescer, c -> c.stats().executed()).tag("role", "leader").register(registry);
+            FunctionCounter.builder("popularity.coalescer.searches", coalescer, c -> c.stats().coalesced()).tag("role", "follower").register(registry);
+            FunctionCounter.builder("popularity.coalescer.timeouts", coalescer, c -> c.stats().timeouts()).register(registry);
+            Gauge.builder("popularity.coalescer.in.flight", coalescer, c -> c.stats().inFlight()).register(registry);
+
+            FunctionCounter.builder("github.rate.limit.leases", scheduler, s -> s.stats().leased()).register(registry);
+            FunctionCounter.builder("github.rate.limit.queued", scheduler, s -> s.stats().queued()).register(registry);
+            FunctionCounter.builder("github.rate.limit.shed", scheduler, s -> s.stats().shed()).register(registry);
+            for (GitHubTokenScheduler.Resource resource : GitHubTokenScheduler.Resource.values()) {
+                Gauge.builder("github.rate.limit.available", scheduler, s -> s.availableBudget(resource))
+                        .tag("resource", resource.header()).register(registry);
+            }
+
+            if (limiter.enabled()) {
+                Gauge.builder("github.concurrency.limit", limiter, l -> l.stats().limit()).register(registry);
+                Gauge.builder("github.concurrency.in.flight", limiter, l -> l.stats().inFlight()).register(registry);
+                FunctionCounter.builder("github.concurrency.calls", limiter, l -> l.stats().accepted()).tag("result", "accepted").register(registry);
+                FunctionCounter.builder("github.concurrency.calls", limiter, l -> l.stats().rejected()).tag("result", "rejected").register(registry);
+            }
+
+            Gauge.builder("popularity.index.records", index, i -> i.stats().records()).register(registry);
+            FunctionCounter.builder("popularity.index.dropped", index, i -> i.stats().dropped()).register(registry);
+
+            FunctionCounter.builder("popularity.stale.served", stale, s -> s.stats().rateLimited()).tag("reason", "rate_limited").register(registry);
+            FunctionCounter.builder("popularity.stale.served", stale, s -> s.stats().circuitOpen()).tag("reason", "circuit_open").register(registry);
+            FunctionCounter.builder("popularity.stale.served", stale, s -> s.stats().upstreamUnavailable()).tag("reason", "upstream_unavailable").register(registry);
+            FunctionCounter.builder("popularity.stale.served", stale, s -> s.stats().slowUpstream()).tag("reason", "slow_upstream").register(registry);
+            FunctionCounter.builder("popularity.stale.revalidations", stale, s -> s.stats().revalidations()).register(registry);
+            Gauge.builder("popularity.stale.stored", stale, s -> s.stats().stored()).register(registry);
+
+            Gauge.builder("popularity.tracked.queries", tracking, t -> t.stats().tracked()).register(registry);
+            FunctionCounter.builder("popularity.tracked.syncs", tracking, t -> t.stats().deltaSyncs()).tag("kind", "delta").register(registry);
+            FunctionCounter.builder("popularity.tracked.syncs", tracking, t -> t.stats().fullSyncs()).tag("kind", "full").register(registry);
+            FunctionCounter.builder("popularity.tracked.merged", tracking, t -> t.stats().mergedItems()).register(registry);
+            FunctionCounter.builder("popularity.tracked.failures", tracking, t -> t.stats().failed()).register(registry);
+
+            FunctionCounter.builder("popularity.sharded.searches", sharding, x -> x.stats().searches()).register(registry);
+            FunctionCounter.builder("popularity.sharded.shards", sharding, x -> x.stats().shards()).register(registry);
+            FunctionCounter.builder("popularity.sharded.requests", sharding, x -> x.stats().requests()).register(registry);
+            FunctionCounter.builder("popularity.sharded.truncated", sharding, x -> x.stats().truncated()).register(registry);
+
+            if (peers.enabled()) {
+                FunctionCounter.builder("popularity.cluster.searches", peers, p -> p.stats().owned()).tag("route", "owned").register(registry);
+                FunctionCounter.builder("popularity.cluster.searches", peers, p -> p.stats().forwarded()).tag("route", "forwarded").register(registry);
+                FunctionCounter.builder("popularity.cluster.searches", peers, p -> p.stats().fallbacks()).tag("route", "fallback").register(registry);
+                Gauge.builder("popularity.cluster.replicas", peers, p -> p.stats().replicas()).register(registry);
+            }
+
+            refresher.ifAvailable(r -> {
+                FunctionCounter.builder("github.cache.refresh.ahead", r, x -> x.stats().refreshed()).tag("result", "refreshed").register(registry);
+                FunctionCounter.builder("github.cache.refresh.ahead", r, x -> x.stats().skippedForBudget()).tag("result", "skipped_budget").register(registry);
+                FunctionCounter.builder("github.cache.refresh.ahead", r, x -> x.stats().failed()).tag("result", "failed").register(registry);
+            });
+            graphQl.ifAvailable(b -> {
+                FunctionCounter.builder("github.graphql.requests", b, x -> x.stats().batches()).register(registry);
+                FunctionCounter.builder("github.graphql.searches", b, x -> x.stats().searches()).register(registry);
+            });
+        };
+    }
+
+    /**
+     * Counts {@code resilience4j.circuitbreaker.transitions} by breaker, from and to state. The current state itself is
+     * already exported by the Resilience4J Micrometer binder. Feign creates its breakers on first use, so each one is
+     * picked up as it is added to the registry.
+     */
+    @Bean
+    public SmartInitializingSingleton circuitBreakerTransitionMetrics(
+            ObjectProvider<Resilience4JCircuitBreakerFactory> factory, MeterRegistry registry) {
+        return () -> factory.ifAvailable(f -> {
+            var breakers = f.getCircuitBreakerRegistry();
+            breakers.getAllCircuitBreakers().forEach(cb -> countTransitions(cb, registry));
+            breakers.getEventPublisher().onEntryAdded(event -> countTransitions(event.getAddedEntry(), registry));
+        });
+    }
+
+    private static void countTransitions(CircuitBreaker breaker, MeterRegistry registry) {
+        breaker.getEventPublisher().onStateTransition(event -> registry.counter("resilience4j.circuitbreaker.transitions",
+                "name", breaker.getName(),
+                "from", event.getStateTransition().getFromState().name(),
+                "to", event.getStateTransition().getToState().name()).increment());
+    }
+}
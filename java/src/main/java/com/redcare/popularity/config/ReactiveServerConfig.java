@@ -0,0 +1,20 @@
+package com.redcare.popularity.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tomcat is on the classpath for the servlet stack and would otherwise be picked for the reactive one too;
+ * serve the reactive profile from Reactor Netty so requests and upstream calls share its small event-loop pool.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
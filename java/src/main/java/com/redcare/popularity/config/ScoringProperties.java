@@ -0,0 +1,20 @@
+package com.redcare.popularity.config;
+
+import com.redcare.popularity.service.ScoringProfile;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Named scoring profiles under {@code scoring.profiles}, selectable per request with {@code profile=}. Requests
+ * without one use {@code scoring.defaultProfile}, or the built-in formula when that is unset.
+ */
+@ConfigurationProperties(prefix = "scoring")
+public record ScoringProperties(
+        String defaultProfile,
+        Map<String, ScoringProfile> profiles
+) {
+    public ScoringProperties {
+        profiles = profiles == null ? Map.of() : Map.copyOf(profiles);
+    }
+}
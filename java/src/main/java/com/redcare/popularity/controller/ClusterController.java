@@ -0,0 +1,43 @@
+package com.redcare.popularity.controller;
+
+import com.redcare.popularity.cache.PeerCache;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.wire.ProtobufPopularityConverter;
+import com.redcare.popularity.service.PopularityService;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Replica-to-replica endpoint behind {@link PeerCache}: serves searches this replica owns as protobuf, with the same
+ * {@code Age} and {@code X-Served-Stale} headers as the public endpoint when the answer is a last-known-good one. Not
+ * part of the public API and should not be routed by the load balancer.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "github.cluster.enabled", havingValue = "true")
+@Hidden
+@Validated
+@RequiredArgsConstructor
+public class ClusterController {
+    private final PopularityService popularityService;
+
+    @GetMapping(path = PeerCache.PATH, produces = ProtobufPopularityConverter.PROTOBUF_VALUE)
+    public ResponseEntity<PopularityResponse> ownedPopularity(
+            @RequestParam(name = "q") @NotBlank String q,
+            @RequestParam(name = "per_page") @Min(1) @Max(100) int perPage,
+            @RequestParam(name = "page") @Min(1) int page,
+            @RequestParam(name = "profile", required = false) String profile
+    ) {
+        return PopularityController.withStaleHeaders(popularityService.searchAndScoreForPeer(q, perPage, page, profile));
+    }
+}
@@ -1,6 +1,10 @@
 package com.redcare.popularity.controller;
 
+import com.redcare.popularity.controller.dto.BatchRequest;
+import com.redcare.popularity.controller.dto.BatchResponse;
 import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.TrackedQueryRequest;
+import com.redcare.popularity.controller.dto.TrackedQueryResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,8 +13,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -19,7 +27,10 @@ public interface PopularityApi {
 
     @Operation(
             summary = "List repositories by popularity",
-            description = "Search GitHub repositories and return items ranked by a popularity score."
+            description = "Search GitHub repositories and return items ranked by a popularity score. While GitHub rate-limits, "
+                    + "is unavailable or slow, the last good result for the same search may be returned with `Age` and "
+                    + "`X-Served-Stale` (rate_limited, circuit_open, upstream_unavailable, slow_upstream) headers. Besides JSON (gzip with "
+                    + "`Accept-Encoding: gzip`), the response is available as Smile, CBOR or protobuf (`popularity.proto`) via `Accept`."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK",
@@ -48,11 +59,130 @@ public interface PopularityApi {
                             examples = @ExampleObject(name = "circuit-open",
                                     value = "{\n  \"status\": 503,\n  \"error\": \"Service Unavailable\",\n  \"message\": \"Service temporarily unavailable. Please try again shortly.\"\n}")))
     })
-    PopularityResponse popularity(
+    ResponseEntity<PopularityResponse> popularity(
             @Parameter(description = "Optional language filter, e.g. Java") String language,
             @Parameter(description = "Optional ISO date (yyyy-MM-dd) to include repos created on or after the date") LocalDate createdAfter,
             @Parameter(description = "Optional free-text search forwarded to GitHub") String query,
             @Parameter(description = "Page size (1..100)") @Min(1) @Max(100) int perPage,
+            @Parameter(description = "Page number (>=1)") @Min(1) int page,
+            @Parameter(description = "`live` (default) searches GitHub; `index` ranks the local index without an upstream call "
+                    + "(no free-text query; items carry `indexedAt`)") @Pattern(regexp = "(?i)live|index") String source,
+            @Parameter(description = "Optional scoring profile from `scoring.profiles`; defaults to `scoring.defaultProfile` "
+                    + "or the built-in formula") String profile
+    );
+
+    @Operation(
+            summary = "Global top-K repositories by popularity",
+            description = "Fetch up to `pages` GitHub pages of 100 items in parallel and return the K best scored repositories across all of them. "
+                    + "With `sharded=true` the search is split into `created:` date ranges of at most 1000 matches each, so ranking is no "
+                    + "longer limited to GitHub's first 1000 results; `pages` then applies per shard, `totalCount` is the sum over shards, "
+                    + "and the whole search spends at most `github.sharding.maxRequests` upstream calls."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.controller.dto.PopularityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Bad request",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Rate limited",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class))),
+            @ApiResponse(responseCode = "502", description = "Upstream error",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    PopularityResponse topPopularity(
+            @Parameter(description = "Optional language filter, e.g. Java") String language,
+            @Parameter(description = "Optional ISO date (yyyy-MM-dd) to include repos created on or after the date") LocalDate createdAfter,
+            @Parameter(description = "Optional free-text search forwarded to GitHub") String query,
+            @Parameter(description = "Number of repositories to return (1..100)") @Min(1) @Max(100) int k,
+            @Parameter(description = "Upstream pages of 100 to rank across (1..10, GitHub caps search at 1000 results)") @Min(1) @Max(10) int pages,
+            @Parameter(description = "Split the search by creation date to rank past the 1000-result cap") boolean sharded,
+            @Parameter(description = "Optional scoring profile from `scoring.profiles`") String profile
+    );
+
+    @Operation(
+            summary = "Export every result of a search as NDJSON",
+            description = "Streams all repositories GitHub returns for the search (up to its 1000-result cap), one scored "
+                    + "repository per line in upstream order, writing each page of 100 as soon as it arrives. "
+                    + "An upstream failure after the first page ends the stream with an `{\"error\": ...}` line."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK, one repository per line",
+                    content = @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = com.redcare.popularity.controller.dto.RepositoryResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Rate limited before the first page",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class))),
+            @ApiResponse(responseCode = "502", description = "Upstream error before the first page",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    ResponseEntity<StreamingResponseBody> exportPopularity(
+            @Parameter(description = "Optional language filter, e.g. Java") String language,
+            @Parameter(description = "Optional ISO date (yyyy-MM-dd) to include repos created on or after the date") LocalDate createdAfter,
+            @Parameter(description = "Optional free-text search forwarded to GitHub") String query
+    );
+
+    @Operation(
+            summary = "Run several popularity searches in one call",
+            description = "Runs up to 50 searches concurrently (a few at a time per batch) and returns one result per spec, in request order. "
+                    + "A failing spec carries an `error` instead of a `result`; the batch itself still returns 200."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK, per-spec results and errors",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Bad request",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    BatchResponse batchPopularity(@Valid BatchRequest request);
+
+    @Operation(
+            summary = "Track a search and keep it in sync",
+            description = "Runs a full search now and then refreshes it in the background by asking GitHub only for repositories "
+                    + "updated since the last one seen, merging and re-ranking just those. Registering the same search again "
+                    + "returns the existing entry."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK, the tracked query after its first sync",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TrackedQueryResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Bad request, tracking disabled or too many tracked queries",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class))),
+            @ApiResponse(responseCode = "502", description = "Upstream error during the first sync",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    TrackedQueryResponse trackQuery(TrackedQueryRequest request);
+
+    @Operation(
+            summary = "Ranked result of a tracked search",
+            description = "Served from the locally held ranking without an upstream call; `totalCount` is the number of repositories held."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.controller.dto.PopularityResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown tracked query",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    PopularityResponse trackedPopularity(
+            @Parameter(description = "Id returned when the search was tracked") String id,
+            @Parameter(description = "Page size (1..100)") @Min(1) @Max(100) int perPage,
             @Parameter(description = "Page number (>=1)") @Min(1) int page
     );
+
+    @Operation(summary = "Stop tracking a search")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Removed"),
+            @ApiResponse(responseCode = "404", description = "Unknown tracked query",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = com.redcare.popularity.exception.ErrorResponse.class)))
+    })
+    ResponseEntity<Void> untrackQuery(@Parameter(description = "Id returned when the search was tracked") String id);
 }
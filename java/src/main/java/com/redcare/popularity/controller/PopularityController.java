@@ -1,7 +1,19 @@
 package com.redcare.popularity.controller;
 
+import com.redcare.popularity.controller.dto.BatchRequest;
+import com.redcare.popularity.controller.dto.BatchResponse;
 import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.TrackedQueryRequest;
+import com.redcare.popularity.controller.dto.TrackedQueryResponse;
+import com.redcare.popularity.controller.wire.ProtobufPopularityConverter;
+import com.redcare.popularity.exception.InvalidQueryException;
+import com.redcare.popularity.service.BatchPopularityService;
+import com.redcare.popularity.service.ExportService;
+import com.redcare.popularity.service.GlobalRankingService;
 import com.redcare.popularity.service.PopularityService;
+import com.redcare.popularity.service.ShardedRankingService;
+import com.redcare.popularity.service.StaleFallback;
+import com.redcare.popularity.tracking.TrackedQueryService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,31 +24,133 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.format.annotation.DateTimeFormat;
 import java.time.LocalDate;
+import java.util.Locale;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 
 @RestController
+@Profile("!reactive")
 @Validated
-@RequestMapping(path = "/repos", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/repos", produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        PopularityController.SMILE_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE,
+        ProtobufPopularityConverter.PROTOBUF_VALUE
+})
 @RequiredArgsConstructor
 public class PopularityController implements PopularityApi {
+    public static final String STALE_HEADER = "X-Served-Stale";
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
     private final PopularityService popularityService;
+    private final GlobalRankingService globalRankingService;
+    private final ShardedRankingService shardedRankingService;
+    private final BatchPopularityService batchPopularityService;
+    private final ExportService exportService;
+    private final TrackedQueryService trackedQueryService;
 
     @Override
     @GetMapping("/popularity")
-    public PopularityResponse popularity(
+    public ResponseEntity<PopularityResponse> popularity(
+            @RequestParam(name = "language", required = false) String language,
+            @RequestParam(name = "created_after", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
+            @RequestParam(name = "query", required = false) String query,
+            @RequestParam(name = "per_page", required = false, defaultValue = "20") int perPage,
+            @RequestParam(name = "page", required = false, defaultValue = "1") int page,
+            @RequestParam(name = "source", required = false, defaultValue = "live") String source,
+            @RequestParam(name = "profile", required = false) String profile
+    ) {
+        if ("index".equalsIgnoreCase(source)) {
+            if (query != null && !query.isBlank()) {
+                throw new InvalidQueryException("Free-text query is not supported with source=index");
+            }
+            return ResponseEntity.ok(popularityService.searchAndScoreFromIndex(language, createdAfter, perPage, page, profile));
+        }
+        return withStaleHeaders(popularityService.searchAndScoreServed(language, createdAfter, query, perPage, page, profile));
+    }
+
+    /** A last-known-good response carries its age and why it was served; a live one has neither header. */
+    static ResponseEntity<PopularityResponse> withStaleHeaders(StaleFallback.Served served) {
+        if (!served.stale()) {
+            return ResponseEntity.ok(served.response());
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(served.age().toSeconds()))
+                .header(STALE_HEADER, served.staleReason().name().toLowerCase(Locale.ROOT))
+                .body(served.response());
+    }
+
+    @Override
+    @GetMapping("/popularity/top")
+    public PopularityResponse topPopularity(
             @RequestParam(name = "language", required = false) String language,
             @RequestParam(name = "created_after", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
             @RequestParam(name = "query", required = false) String query,
+            @RequestParam(name = "k", required = false, defaultValue = "10") int k,
+            @RequestParam(name = "pages", required = false, defaultValue = "5") int pages,
+            @RequestParam(name = "sharded", required = false, defaultValue = "false") boolean sharded,
+            @RequestParam(name = "profile", required = false) String profile
+    ) {
+        if (sharded) {
+            return shardedRankingService.topK(language, createdAfter, query, k, pages, profile);
+        }
+        return globalRankingService.topK(language, createdAfter, query, k, pages, profile);
+    }
+
+    @Override
+    @GetMapping(path = "/popularity/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPopularity(
+            @RequestParam(name = "language", required = false) String language,
+            @RequestParam(name = "created_after", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
+            @RequestParam(name = "query", required = false) String query
+    ) {
+        ExportService.Export export = exportService.open(language, createdAfter, query);
+        StreamingResponseBody body = out -> exportService.stream(export, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Override
+    @PostMapping(path = "/popularity/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResponse batchPopularity(@RequestBody BatchRequest request) {
+        return batchPopularityService.searchAndScoreAll(request.specs());
+    }
+
+    @Override
+    @PostMapping(path = "/popularity/tracked", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TrackedQueryResponse trackQuery(@RequestBody TrackedQueryRequest request) {
+        return trackedQueryService.register(request);
+    }
+
+    @Override
+    @GetMapping("/popularity/tracked/{id}")
+    public PopularityResponse trackedPopularity(
+            @PathVariable("id") String id,
             @RequestParam(name = "per_page", required = false, defaultValue = "20") int perPage,
             @RequestParam(name = "page", required = false, defaultValue = "1") int page
     ) {
-        return popularityService.searchAndScore(language, createdAfter, query, perPage, page);
+        return trackedQueryService.page(id, perPage, page);
+    }
+
+    @Override
+    @DeleteMapping("/popularity/tracked/{id}")
+    public ResponseEntity<Void> untrackQuery(@PathVariable("id") String id) {
+        trackedQueryService.remove(id);
+        return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,42 @@
+package com.redcare.popularity.controller;
+
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.service.ReactivePopularityService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * WebFlux variant of {@link PopularityController}, active with the {@code reactive} profile.
+ */
+@RestController
+@Profile("reactive")
+@Validated
+@RequestMapping(path = "/repos", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class ReactivePopularityController {
+    private final ReactivePopularityService popularityService;
+
+    @GetMapping("/popularity")
+    public Mono<PopularityResponse> popularity(
+            @RequestParam(name = "language", required = false) String language,
+            @RequestParam(name = "created_after", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
+            @RequestParam(name = "query", required = false) String query,
+            @RequestParam(name = "per_page", required = false, defaultValue = "20") @Min(1) @Max(100) int perPage,
+            @RequestParam(name = "page", required = false, defaultValue = "1") @Min(1) int page
+    ) {
+        return popularityService.searchAndScore(language, createdAfter, query, perPage, page);
+    }
+}
@@ -0,0 +1,11 @@
+package com.redcare.popularity.controller.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchRequest(
+        @NotEmpty @Size(max = 50) List<@Valid BatchSpec> specs
+) {}
@@ -0,0 +1,9 @@
+package com.redcare.popularity.controller.dto;
+
+import java.util.List;
+
+public record BatchResponse(
+        int succeeded,
+        int failed,
+        List<BatchResult> results
+) {}
@@ -0,0 +1,23 @@
+package com.redcare.popularity.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.redcare.popularity.exception.ErrorResponse;
+
+/**
+ * Outcome of one spec, at the spec's position in the request. Exactly one of {@code result} and {@code error} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(
+        int index,
+        BatchSpec spec,
+        PopularityResponse result,
+        ErrorResponse error
+) {
+    public static BatchResult success(int index, BatchSpec spec, PopularityResponse result) {
+        return new BatchResult(index, spec, result, null);
+    }
+
+    public static BatchResult failure(int index, BatchSpec spec, ErrorResponse error) {
+        return new BatchResult(index, spec, null, error);
+    }
+}
@@ -0,0 +1,23 @@
+package com.redcare.popularity.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.time.LocalDate;
+
+/**
+ * One search of a batch; same parameters and defaults as {@code GET /repos/popularity}.
+ */
+public record BatchSpec(
+        String language,
+        @JsonProperty("created_after") LocalDate createdAfter,
+        String query,
+        @JsonProperty("per_page") @Min(1) @Max(100) Integer perPage,
+        @Min(1) Integer page
+) {
+    public BatchSpec {
+        perPage = perPage == null ? 20 : perPage;
+        page = page == null ? 1 : page;
+    }
+}
@@ -1,7 +1,13 @@
 package com.redcare.popularity.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.OffsetDateTime;
 
+/**
+ * {@code indexedAt} is only set for results served from the local index: it is when GitHub last
+ * returned this repository, i.e. how stale the stars, forks and dates are.
+ */
 public record RepositoryResponse(
         long id,
         String name,
@@ -10,6 +16,11 @@ public record RepositoryResponse(
         int stars,
         int forks,
         OffsetDateTime updatedAt,
-        double score
-) {}
-
+        double score,
+        @JsonInclude(JsonInclude.Include.NON_NULL) OffsetDateTime indexedAt
+) {
+    public RepositoryResponse(long id, String name, String htmlUrl, String language, int stars, int forks,
+                              OffsetDateTime updatedAt, double score) {
+        this(id, name, htmlUrl, language, stars, forks, updatedAt, score, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.redcare.popularity.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+
+/**
+ * A search to keep in sync; same filters as {@code GET /repos/popularity}.
+ */
+public record TrackedQueryRequest(
+        String language,
+        @JsonProperty("created_after") LocalDate createdAfter,
+        String query
+) {}
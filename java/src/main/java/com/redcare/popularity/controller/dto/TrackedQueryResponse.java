@@ -0,0 +1,17 @@
+package com.redcare.popularity.controller.dto;
+
+import java.time.Instant;
+
+/**
+ * State of a tracked query: {@code highWaterMark} is the latest {@code updated_at} merged so far, {@code held} how
+ * many repositories are ranked locally.
+ */
+public record TrackedQueryResponse(
+        String id,
+        String query,
+        int held,
+        long totalCount,
+        Instant highWaterMark,
+        Instant lastFullSync,
+        Instant lastRefresh
+) {}
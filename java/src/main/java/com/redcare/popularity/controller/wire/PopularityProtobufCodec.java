@@ -0,0 +1,207 @@
+package com.redcare.popularity.controller.wire;
+
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protobuf encoding of {@link PopularityResponse} as described by {@code src/main/proto/popularity.proto}, written
+ * by hand so the build needs neither protoc nor generated classes. Timestamps travel as UTC epoch milliseconds;
+ * unknown fields are skipped when decoding, so the schema can grow compatibly.
+ */
+public final class PopularityProtobufCodec {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private PopularityProtobufCodec() {
+    }
+
+    public static byte[] encode(PopularityResponse response) {
+        Writer out = new Writer(64 + response.items().size() * 128);
+        out.varintField(1, response.totalCount());
+        out.varintField(2, response.count());
+        Writer item = new Writer(128);
+        for (RepositoryResponse repo : response.items()) {
+            item.reset();
+            item.varintField(1, repo.id());
+            item.stringField(2, repo.name());
+            item.stringField(3, repo.htmlUrl());
+            item.stringField(4, repo.language());
+            item.varintField(5, repo.stars());
+            item.varintField(6, repo.forks());
+            if (repo.updatedAt() != null) item.varintField(7, repo.updatedAt().toInstant().toEpochMilli());
+            item.doubleField(8, repo.score());
+            if (repo.indexedAt() != null) item.varintField(9, repo.indexedAt().toInstant().toEpochMilli());
+            out.bytesField(3, item);
+        }
+        return out.toByteArray();
+    }
+
+    public static PopularityResponse decode(byte[] bytes) {
+        Reader in = new Reader(bytes, 0, bytes.length);
+        long totalCount = 0;
+        int count = 0;
+        List<RepositoryResponse> items = new ArrayList<>();
+        while (in.hasMore()) {
+            int tag = (int) in.varint();
+            switch (tag >>> 3) {
+                case 1 -> totalCount = in.varint();
+                case 2 -> count = (int) in.varint();
+                case 3 -> items.add(decodeItem(in.embedded()));
+                default -> in.skip(tag & 7);
+            }
+        }
+        return new PopularityResponse(totalCount, count, items);
+    }
+
+    private static RepositoryResponse decodeItem(Reader in) {
+        long id = 0;
+        String name = null, htmlUrl = null, language = null;
+        int stars = 0, forks = 0;
+        OffsetDateTime updatedAt = null, indexedAt = null;
+        double score = 0;
+        while (in.hasMore()) {
+            int tag = (int) in.varint();
+            switch (tag >>> 3) {
+                case 1 -> id = in.varint();
+                case 2 -> name = in.string();
+                case 3 -> htmlUrl = in.string();
+                case 4 -> language = in.string();
+                case 5 -> stars = (int) in.varint();
+                case 6 -> forks = (int) in.varint();
+                case 7 -> updatedAt = utc(in.varint());
+                case 8 -> score = Double.longBitsToDouble(in.fixed64());
+                case 9 -> indexedAt = utc(in.varint());
+                default -> in.skip(tag & 7);
+            }
+        }
+        return new RepositoryResponse(id, name, htmlUrl, language, stars, forks, updatedAt, score, indexedAt);
+    }
+
+    private static OffsetDateTime utc(long epochMillis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+        Writer(int size) {
+            super(size);
+        }
+
+        void varintField(int field, long value) {
+            tag(field, VARINT);
+            varint(value);
+        }
+
+        void doubleField(int field, double value) {
+            tag(field, FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        void stringField(int field, String value) {
+            if (value == null) return;
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            tag(field, LENGTH_DELIMITED);
+            varint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        void bytesField(int field, Writer nested) {
+            tag(field, LENGTH_DELIMITED);
+            varint(nested.size());
+            write(nested.buf, 0, nested.size());
+        }
+
+        private void tag(int field, int wireType) {
+            varint(((long) field << 3) | wireType);
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] buf, int pos, int end) {
+            this.buf = buf;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return pos < end;
+        }
+
+        long varint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long fixed64() {
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result |= (long) (next() & 0xFF) << (8 * i);
+            }
+            return result;
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        Reader embedded() {
+            int length = length();
+            Reader nested = new Reader(buf, pos, pos + length);
+            pos += length;
+            return nested;
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case VARINT -> varint();
+                case FIXED64 -> pos += 8;
+                case LENGTH_DELIMITED -> pos += length();
+                case FIXED32 -> pos += 4;
+                default -> throw new IllegalArgumentException("Unsupported wire type " + wireType);
+            }
+        }
+
+        private int length() {
+            int length = (int) varint();
+            if (length < 0 || pos + length > end) throw new IllegalArgumentException("Truncated message");
+            return length;
+        }
+
+        private byte next() {
+            if (pos >= end) throw new IllegalArgumentException("Truncated message");
+            return buf[pos++];
+        }
+    }
+}
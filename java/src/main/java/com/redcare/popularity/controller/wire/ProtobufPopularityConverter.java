@@ -0,0 +1,39 @@
+package com.redcare.popularity.controller.wire;
+
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link PopularityResponse} as {@code application/x-protobuf} through {@link PopularityProtobufCodec}.
+ */
+public class ProtobufPopularityConverter extends AbstractHttpMessageConverter<PopularityResponse> {
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(PROTOBUF_VALUE);
+
+    public ProtobufPopularityConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PopularityResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected PopularityResponse readInternal(Class<? extends PopularityResponse> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        return PopularityProtobufCodec.decode(inputMessage.getBody().readAllBytes());
+    }
+
+    @Override
+    protected void writeInternal(PopularityResponse response, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = PopularityProtobufCodec.encode(response);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,17 @@
+package com.redcare.popularity.exception;
+
+import lombok.Getter;
+
+/**
+ * A GitHub call shed by the adaptive concurrency limit. It is a 503 {@link GitHubApiException}, so every caller that
+ * already handles upstream failures handles it too; the exception handlers answer it with a 503 of its own.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends GitHubApiException {
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(int limit) {
+        super(503, "GitHub concurrency limit of " + limit + " reached", null);
+        this.limit = limit;
+    }
+}
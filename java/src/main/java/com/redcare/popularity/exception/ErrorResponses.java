@@ -0,0 +1,89 @@
+package com.redcare.popularity.exception;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Error-to-response mapping shared by the servlet and reactive exception handlers.
+ */
+@Slf4j
+public final class ErrorResponses {
+    private ErrorResponses() {
+    }
+
+    public static ResponseEntity<ErrorResponse> upstream(GitHubApiException ex, String path) {
+        int upstream = ex.getStatusCode();
+        HttpStatus status;
+        if (upstream == 429) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else if (upstream >= 400 && upstream < 500) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+        }
+
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            log.warn("Upstream rate limited (path={}): {}", path, ex.getMessage());
+        } else if (status == HttpStatus.BAD_REQUEST) {
+            log.warn("Upstream 4xx mapped to 400 (upstream={}, path={}): {}", upstream, path, ex.getMessage());
+        } else {
+            log.error("Upstream error (status={}, path={}): {}", upstream, path, ex.getMessage());
+        }
+        String message = (status == HttpStatus.TOO_MANY_REQUESTS)
+                ? "GitHub rate limit reached. Try again later."
+                : (status == HttpStatus.BAD_REQUEST ? "Invalid request. Please review your parameters." : "Temporary upstream issue. Please try again.");
+        String outcome = status == HttpStatus.TOO_MANY_REQUESTS ? "RATE_LIMITED"
+                : (status == HttpStatus.BAD_REQUEST ? "UPSTREAM_CLIENT_ERROR" : "UPSTREAM_ERROR");
+        return of(status, outcome, message);
+    }
+
+    public static ResponseEntity<ErrorResponse> circuitOpen(Exception ex, String path) {
+        log.error("Circuit open (path={}): {}", path, ex.getMessage());
+        return of(HttpStatus.SERVICE_UNAVAILABLE, "CIRCUIT_OPEN", "Service temporarily unavailable. Please try again shortly.");
+    }
+
+    public static ResponseEntity<ErrorResponse> concurrencyLimited(ConcurrencyLimitExceededException ex, String path) {
+        log.warn("Shed by GitHub concurrency limit (path={}): {}", path, ex.getMessage());
+        return of(HttpStatus.SERVICE_UNAVAILABLE, "CONCURRENCY_LIMITED", "GitHub is responding slowly. Please try again shortly.");
+    }
+
+    public static ResponseEntity<ErrorResponse> badRequest(Exception ex, String path) {
+        log.warn("Bad request (path={}): {}", path, ex.getMessage());
+        return of(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "Invalid request. Please review your parameters.");
+    }
+
+    public static ResponseEntity<ErrorResponse> notFound(Exception ex, String path) {
+        log.warn("Not found (path={}): {}", path, ex.getMessage());
+        return of(HttpStatus.NOT_FOUND, "NOT_FOUND", "The requested resource does not exist.");
+    }
+
+    public static ResponseEntity<ErrorResponse> unexpected(Exception ex, String path) {
+        log.error("Unhandled error (path={}): {}", path, ex.getMessage());
+        return of(HttpStatus.INTERNAL_SERVER_ERROR, "UNEXPECTED", "Something went wrong. Please try again.");
+    }
+
+    /**
+     * Same mapping as the exception handlers, for failures that are reported inside a response (batch items).
+     */
+    public static ResponseEntity<ErrorResponse> forException(Throwable ex, String path) {
+        if (ex instanceof ConcurrencyLimitExceededException shed) return concurrencyLimited(shed, path);
+        if (ex instanceof GitHubApiException gitHub) return upstream(gitHub, path);
+        if (ex instanceof CallNotPermittedException circuit) return circuitOpen(circuit, path);
+        if (ex instanceof Exception other) return unexpected(other, path);
+        return unexpected(new IllegalStateException(ex), path);
+    }
+
+    /**
+     * Every error response is counted as {@code popularity.errors}, by status and outcome, through the global registry
+     * (Spring Boot adds its registry there), so both exception handlers and batch items are covered.
+     */
+    private static ResponseEntity<ErrorResponse> of(HttpStatus status, String outcome, String message) {
+        Metrics.counter("popularity.errors", "status", String.valueOf(status.value()), "outcome", outcome).increment();
+        ErrorResponse body = new ErrorResponse(status.value(), status.getReasonPhrase(), message);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,11 @@
+package com.redcare.popularity.exception;
+
+/**
+ * A request that is well-formed but cannot be answered as asked; mapped to 400.
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.redcare.popularity.exception;
+
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * The owner replica answered a forwarded search with its last-known-good response instead of a live one. Like the
+ * upstream failure behind it, it is a 503 {@link GitHubApiException}; the stale fallback turns it back into a stale
+ * response with the owner's age and reason rather than remembering it as fresh.
+ */
+@Getter
+public class PeerServedStaleException extends GitHubApiException {
+    private final PopularityResponse response;
+    private final Duration age;
+    private final String reason;
+
+    public PeerServedStaleException(PopularityResponse response, Duration age, String reason) {
+        super(503, "Owner replica served a last known good response " + age.toSeconds() + " s old (" + reason + ")", null);
+        this.response = response;
+        this.age = age;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,43 @@
+package com.redcare.popularity.exception;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * WebFlux counterpart of {@link RestExceptionHandler} with the same status mapping.
+ */
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveRestExceptionHandler {
+
+    @ExceptionHandler(GitHubApiException.class)
+    public ResponseEntity<ErrorResponse> handleGitHub(GitHubApiException ex, ServerHttpRequest req) {
+        return ErrorResponses.upstream(ex, req.getPath().value());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGeneric(Exception ex, ServerHttpRequest req) {
+        return ErrorResponses.unexpected(ex, req.getPath().value());
+    }
+
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpen(CallNotPermittedException ex, ServerHttpRequest req) {
+        return ErrorResponses.circuitOpen(ex, req.getPath().value());
+    }
+
+    @ExceptionHandler({
+            ServerWebInputException.class,
+            ConstraintViolationException.class,
+            HandlerMethodValidationException.class
+    })
+    public ResponseEntity<ErrorResponse> handleBadRequest(Exception ex, ServerHttpRequest req) {
+        return ErrorResponses.badRequest(ex, req.getPath().value());
+    }
+}
@@ -0,0 +1,11 @@
+package com.redcare.popularity.exception;
+
+/**
+ * No tracked query is registered under the given id; mapped to 404.
+ */
+public class TrackedQueryNotFoundException extends RuntimeException {
+
+    public TrackedQueryNotFoundException(String id) {
+        super("No tracked query " + id);
+    }
+}
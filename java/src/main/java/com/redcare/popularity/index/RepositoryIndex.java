@@ -0,0 +1,383 @@
+package com.redcare.popularity.index;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local index of every repository seen in a search response, keyed by repo id, so popularity queries can be
+ * answered without calling GitHub.
+ * <p>
+ * Records live in one memory-mapped file with a fixed-width layout (see {@link #RECORD_SIZE}); a repository keeps
+ * its slot for life and is overwritten in place when GitHub returns newer data. Language names are interned in a
+ * small side file. The secondary indexes (language and created date, as {@code createdDay << 32 | slot}) are kept
+ * in memory and rebuilt from the file on startup.
+ */
+@Component
+@Slf4j
+public class RepositoryIndex implements AutoCloseable {
+    static final int MAGIC = 0x47485049; // "GHPI"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 512;
+
+    // record layout
+    private static final int ID = 0;
+    private static final int STARS = 8;
+    private static final int FORKS = 12;
+    private static final int UPDATED = 16;
+    private static final int CREATED = 24;
+    private static final int INDEXED = 32;
+    private static final int LANGUAGE = 40;
+    private static final int NAME_LEN = 42;
+    private static final int URL_LEN = 44;
+    private static final int NAME = 48;
+    private static final int NAME_MAX = 160;
+    private static final int URL = NAME + NAME_MAX;
+    private static final int URL_MAX = 256;
+
+    private static final long NO_CREATED = Long.MIN_VALUE;
+    private static final short NO_LANGUAGE = -1;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final long refreshMillis;
+    private final Clock clock;
+    private final Path languagesFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<String> languages = new ArrayList<>();
+    private final Map<String, Short> languageIds = new HashMap<>();
+    private final NavigableSet<Long> byCreated = new TreeSet<>();
+    private final Map<Short, NavigableSet<Long>> byLanguageCreated = new HashMap<>();
+    private int count;
+    private long dropped;
+
+    @Autowired
+    public RepositoryIndex(@Value("${github.index.enabled:false}") boolean enabled,
+                           @Value("${github.index.directory:${java.io.tmpdir}/github-popularity-index}") Path directory,
+                           @Value("${github.index.maxRecords:100000}") int maxRecords,
+                           @Value("${github.index.refreshMillis:60000}") long refreshMillis,
+                           Clock clock) {
+        this.enabled = enabled;
+        this.capacity = maxRecords;
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+        if (!enabled) {
+            this.languagesFile = null;
+            this.channel = null;
+            this.records = null;
+            return;
+        }
+        long size = HEADER_SIZE + (long) maxRecords * RECORD_SIZE;
+        if (maxRecords <= 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("github.index.maxRecords must be between 1 and "
+                    + (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE + ": " + maxRecords);
+        }
+        try {
+            Files.createDirectories(directory);
+            this.languagesFile = directory.resolve("languages.txt");
+            this.channel = FileChannel.open(directory.resolve("repositories.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.records = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open repository index in " + directory, e);
+        }
+        log.atInfo().log("Repository index opened in {} with {} of {} records", directory, count, capacity);
+    }
+
+    /** No-op index for callers that run without one. */
+    public static RepositoryIndex disabled() {
+        return new RepositoryIndex(false, null, 0, 0, Clock.systemUTC());
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Upserts the items of one search response. Items that are unchanged and were confirmed within
+     * {@code refreshMillis} are skipped without taking the write lock.
+     */
+    public void record(List<GitHubRepoItem> items) {
+        if (!enabled || items.isEmpty()) return;
+        long now = clock.millis();
+        List<GitHubRepoItem> changed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (GitHubRepoItem it : items) {
+                Integer slot = slotsById.get(it.id());
+                if (slot == null || !isCurrent(slot, it, now)) changed.add(it);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (changed.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            for (GitHubRepoItem it : changed) {
+                upsert(it, now);
+            }
+            records.putInt(12, count);
+        } catch (IOException e) {
+            log.atWarn().log("Could not update repository index: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Repositories matching the filters, as primitive columns ready for batch scoring.
+     * A blank language matches every language; {@code createdAfter} is inclusive and excludes records without a creation date.
+     */
+    public Matches match(String language, LocalDate createdAfter) {
+        if (!enabled) return Matches.EMPTY;
+        lock.readLock().lock();
+        try {
+            NavigableSet<Long> candidates;
+            if (language == null || language.isBlank()) {
+                candidates = byCreated;
+            } else {
+                Short languageId = languageIds.get(language.trim().toLowerCase(Locale.ROOT));
+                candidates = languageId == null ? null : byLanguageCreated.get(languageId);
+            }
+            if (candidates == null) return Matches.EMPTY;
+            if (createdAfter != null) {
+                candidates = candidates.tailSet(Math.max(1, createdAfter.toEpochDay()) << 32, true);
+            }
+
+            int n = candidates.size();
+            int[] slots = new int[n];
+            int[] stars = new int[n];
+            int[] forks = new int[n];
+            long[] updated = new long[n];
+            int i = 0;
+            for (long key : candidates) {
+                int slot = (int) key;
+                int base = offset(slot);
+                slots[i] = slot;
+                stars[i] = records.getInt(base + STARS);
+                forks[i] = records.getInt(base + FORKS);
+                updated[i] = records.getLong(base + UPDATED);
+                i++;
+            }
+            return new Matches(slots, stars, forks, updated);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Indexed read(int slot) {
+        lock.readLock().lock();
+        try {
+            if (slot < 0 || slot >= count) throw new IndexOutOfBoundsException("No record in slot " + slot);
+            int base = offset(slot);
+            long created = records.getLong(base + CREATED);
+            short language = records.getShort(base + LANGUAGE);
+            GitHubRepoItem item = new GitHubRepoItem(
+                    records.getLong(base + ID),
+                    readString(base + NAME, records.getShort(base + NAME_LEN)),
+                    readString(base + URL, records.getShort(base + URL_LEN)),
+                    language == NO_LANGUAGE ? null : languages.get(language),
+                    records.getInt(base + STARS),
+                    records.getInt(base + FORKS),
+                    OffsetDateTime.ofInstant(Instant.ofEpochSecond(records.getLong(base + UPDATED)), ZoneOffset.UTC),
+                    created == NO_CREATED ? null : OffsetDateTime.ofInstant(Instant.ofEpochSecond(created), ZoneOffset.UTC));
+            return new Indexed(item, Instant.ofEpochMilli(records.getLong(base + INDEXED)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return new IndexStats(enabled, count, capacity, languages.size(), dropped);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            records.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        if (Files.exists(languagesFile)) {
+            for (String name : Files.readAllLines(languagesFile, StandardCharsets.UTF_8)) {
+                languageIds.put(name.toLowerCase(Locale.ROOT), (short) languages.size());
+                languages.add(name);
+            }
+        }
+        int magic = records.getInt(0);
+        if (magic != MAGIC || records.getInt(4) != VERSION || records.getInt(8) != RECORD_SIZE) {
+            if (magic != 0) {
+                log.atWarn().log("Repository index has an unknown layout, starting empty");
+            }
+            records.putInt(0, MAGIC);
+            records.putInt(4, VERSION);
+            records.putInt(8, RECORD_SIZE);
+            records.putInt(12, 0);
+            return;
+        }
+        int stored = Math.min(records.getInt(12), capacity);
+        for (int slot = 0; slot < stored; slot++) {
+            int base = offset(slot);
+            slotsById.put(records.getLong(base + ID), slot);
+            addSecondary(slot, records.getShort(base + LANGUAGE), records.getLong(base + CREATED));
+        }
+        count = stored;
+    }
+
+    private boolean isCurrent(int slot, GitHubRepoItem it, long now) {
+        int base = offset(slot);
+        return now - records.getLong(base + INDEXED) < refreshMillis
+                && records.getInt(base + STARS) == it.stargazersCount()
+                && records.getInt(base + FORKS) == it.forksCount()
+                && records.getLong(base + UPDATED) == epochSecond(it.updatedAt());
+    }
+
+    private void upsert(GitHubRepoItem it, long now) throws IOException {
+        byte[] name = bytes(it.fullName());
+        byte[] url = bytes(it.htmlUrl());
+        if (it.updatedAt() == null || name.length > NAME_MAX || url.length > URL_MAX) {
+            log.atDebug().log("Not indexing repository {}: missing date or oversized name/url", it.id());
+            return;
+        }
+        Integer existing = slotsById.get(it.id());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            int base = offset(slot);
+            removeSecondary(slot, records.getShort(base + LANGUAGE), records.getLong(base + CREATED));
+        } else if (count < capacity) {
+            slot = count++;
+            slotsById.put(it.id(), slot);
+        } else {
+            if (dropped++ == 0) {
+                log.atWarn().log("Repository index is full ({} records); new repositories are not indexed", capacity);
+            }
+            return;
+        }
+
+        short language = languageId(it.language());
+        long created = it.createdAt() == null ? NO_CREATED : epochSecond(it.createdAt());
+        int base = offset(slot);
+        records.putLong(base + ID, it.id());
+        records.putInt(base + STARS, it.stargazersCount());
+        records.putInt(base + FORKS, it.forksCount());
+        records.putLong(base + UPDATED, epochSecond(it.updatedAt()));
+        records.putLong(base + CREATED, created);
+        records.putLong(base + INDEXED, now);
+        records.putShort(base + LANGUAGE, language);
+        records.putShort(base + NAME_LEN, (short) name.length);
+        records.putShort(base + URL_LEN, (short) url.length);
+        records.put(base + NAME, name);
+        records.put(base + URL, url);
+        addSecondary(slot, language, created);
+    }
+
+    private short languageId(String language) throws IOException {
+        if (language == null || language.isBlank()) return NO_LANGUAGE;
+        Short id = languageIds.get(language.toLowerCase(Locale.ROOT));
+        if (id != null) return id;
+        if (languages.size() == Short.MAX_VALUE) return NO_LANGUAGE;
+        Files.writeString(languagesFile, language + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        short newId = (short) languages.size();
+        languages.add(language);
+        languageIds.put(language.toLowerCase(Locale.ROOT), newId);
+        return newId;
+    }
+
+    private void addSecondary(int slot, short language, long created) {
+        long key = createdKey(slot, created);
+        byCreated.add(key);
+        if (language != NO_LANGUAGE) {
+            byLanguageCreated.computeIfAbsent(language, l -> new TreeSet<>()).add(key);
+        }
+    }
+
+    private void removeSecondary(int slot, short language, long created) {
+        long key = createdKey(slot, created);
+        byCreated.remove(key);
+        if (language != NO_LANGUAGE) {
+            NavigableSet<Long> keys = byLanguageCreated.get(language);
+            if (keys != null) keys.remove(key);
+        }
+    }
+
+    /** Unknown creation dates sort as day 0, so any created_after filter excludes them. */
+    private static long createdKey(int slot, long createdEpochSecond) {
+        long day = createdEpochSecond == NO_CREATED ? 0 : Math.max(1, Math.floorDiv(createdEpochSecond, 86_400L));
+        return day << 32 | slot;
+    }
+
+    private String readString(int position, short length) {
+        byte[] bytes = new byte[length];
+        records.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long epochSecond(OffsetDateTime time) {
+        return time == null ? NO_CREATED : time.toEpochSecond();
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /** Matching records as parallel arrays; {@code slots[i]} is what {@link #read(int)} takes. */
+    public record Matches(int[] slots, int[] stars, int[] forks, long[] updatedEpochSeconds) {
+        static final Matches EMPTY = new Matches(new int[0], new int[0], new int[0], new long[0]);
+
+        public int size() {
+            return slots.length;
+        }
+    }
+
+    public record Indexed(GitHubRepoItem item, Instant indexedAt) {}
+
+    public record IndexStats(boolean enabled, int records, int capacity, int languages, long dropped) {}
+}
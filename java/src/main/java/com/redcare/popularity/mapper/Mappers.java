@@ -6,6 +6,7 @@ import com.redcare.popularity.controller.dto.RepositoryResponse;
 import com.redcare.popularity.domain.PopularityResult;
 import com.redcare.popularity.domain.RepositoryScore;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 import static com.redcare.popularity.util.CommonUtils.roundScore;
@@ -27,6 +28,39 @@ public final class Mappers {
         );
     }
 
+    /**
+     * Direct upstream-to-DTO mapping for callers that rank without the domain model; {@code roundedScore} is used as is.
+     */
+    public static RepositoryResponse toRepositoryResponse(GitHubRepoItem it, double roundedScore) {
+        return new RepositoryResponse(
+                it.id(),
+                it.fullName(),
+                it.htmlUrl(),
+                it.language(),
+                it.stargazersCount(),
+                it.forksCount(),
+                it.updatedAt(),
+                roundedScore
+        );
+    }
+
+    /**
+     * As above, for results served from the local index; {@code indexedAt} marks how stale the item is.
+     */
+    public static RepositoryResponse toRepositoryResponse(GitHubRepoItem it, double roundedScore, OffsetDateTime indexedAt) {
+        return new RepositoryResponse(
+                it.id(),
+                it.fullName(),
+                it.htmlUrl(),
+                it.language(),
+                it.stargazersCount(),
+                it.forksCount(),
+                it.updatedAt(),
+                roundedScore,
+                indexedAt
+        );
+    }
+
     public static PopularityResponse toPopularityResponse(PopularityResult result) {
         List<RepositoryResponse> items = result.items().stream()
                 .map(it -> new RepositoryResponse(
@@ -0,0 +1,94 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.controller.dto.BatchResponse;
+import com.redcare.popularity.controller.dto.BatchResult;
+import com.redcare.popularity.controller.dto.BatchSpec;
+import com.redcare.popularity.exception.ErrorResponses;
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the specs of one batch through {@link PopularityService} in parallel. At most
+ * {@code maxConcurrencyPerBatch} specs of a batch are in flight at once (the next one is submitted as
+ * one completes), so a single large batch cannot drain the GitHub rate budget ahead of other traffic.
+ * A failing spec becomes an error entry; it never fails the batch.
+ */
+@Service
+@Slf4j
+public class BatchPopularityService {
+    static final String PATH = "/repos/popularity/batch";
+
+    private final PopularityService popularityService;
+    private final ExecutorService batchExecutor;
+    private final int maxConcurrencyPerBatch;
+
+    public BatchPopularityService(PopularityService popularityService,
+                                  @Qualifier("gitHubBatchExecutor") ExecutorService batchExecutor,
+                                  @Value("${github.batch.maxConcurrencyPerBatch:4}") int maxConcurrencyPerBatch) {
+        this.popularityService = popularityService;
+        this.batchExecutor = batchExecutor;
+        this.maxConcurrencyPerBatch = Math.max(1, maxConcurrencyPerBatch);
+    }
+
+    public BatchResponse searchAndScoreAll(List<BatchSpec> specs) {
+        int n = specs.size();
+        log.atInfo().log("Start batch of {} searches", n);
+
+        CompletionService<BatchResult> completion = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<BatchResult>> futures = new ArrayList<>(n);
+        BatchResult[] results = new BatchResult[n];
+        int submitted = 0;
+        try {
+            while (submitted < Math.min(n, maxConcurrencyPerBatch)) {
+                futures.add(submit(completion, submitted, specs.get(submitted)));
+                submitted++;
+            }
+            for (int done = 0; done < n; done++) {
+                BatchResult result = completion.take().get();
+                results[result.index()] = result;
+                if (submitted < n) {
+                    futures.add(submit(completion, submitted, specs.get(submitted)));
+                    submitted++;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted while running batch of " + n, ex);
+        } catch (ExecutionException ex) {
+            // run() reports every failure as a result, so only an Error can get here
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        int failed = (int) Arrays.stream(results).filter(r -> r.error() != null).count();
+        log.atInfo().log("Finished batch of {} searches ({} failed)", n, failed);
+        return new BatchResponse(n - failed, failed, List.of(results));
+    }
+
+    private Future<BatchResult> submit(CompletionService<BatchResult> completion, int index, BatchSpec spec) {
+        return completion.submit(() -> run(index, spec));
+    }
+
+    private BatchResult run(int index, BatchSpec spec) {
+        try {
+            return BatchResult.success(index, spec, popularityService.searchAndScore(
+                    spec.language(), spec.createdAfter(), spec.query(), spec.perPage(), spec.page()));
+        } catch (RuntimeException ex) {
+            return BatchResult.failure(index, spec, ErrorResponses.forException(ex, PATH + "#" + index).getBody());
+        }
+    }
+}
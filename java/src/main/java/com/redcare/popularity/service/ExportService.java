@@ -0,0 +1,150 @@
+package com.redcare.popularity.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.exception.ErrorResponse;
+import com.redcare.popularity.exception.ErrorResponses;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.mapper.Mappers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.redcare.popularity.util.CommonUtils.roundScore;
+
+/**
+ * Streams every result GitHub returns for a query (up to its 1000-result cap) as NDJSON, one scored
+ * {@code RepositoryResponse} per line in upstream order. Each page is scored and written as soon as it arrives while
+ * at most one next page is fetched ahead, so memory stays at two pages whatever the result size. A slow client blocks
+ * the write, which holds back the next fetch; a disconnected client fails the write and ends the export.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    static final String PATH = "/repos/popularity/export";
+    static final int PAGE_SIZE = 100;
+    static final int MAX_RESULTS = 1000;
+
+    private final GitHubSearchCache searchCache;
+    private final ScoringService scoringService;
+    private final ExecutorService fanOutExecutor;
+    private final RepositoryIndex repositoryIndex;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public ExportService(GitHubSearchCache searchCache, ScoringService scoringService,
+                         @Qualifier("gitHubFanOutExecutor") ExecutorService fanOutExecutor,
+                         RepositoryIndex repositoryIndex, ObjectMapper objectMapper) {
+        this.searchCache = searchCache;
+        this.scoringService = scoringService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.repositoryIndex = repositoryIndex;
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Fetches the first page on the calling thread, before anything is written, so an upstream failure there still
+     * becomes a regular error response.
+     */
+    public Export open(String language, LocalDate createdAfter, String query) {
+        String q = PopularityService.buildQuery(language, createdAfter, query);
+        log.atInfo().log("Start export for q='{}'", q);
+        GitHubSearchResponse first = searchCache.search(q, PAGE_SIZE, 1);
+        long reachable = Math.min(first.totalCount(), MAX_RESULTS);
+        int lastPage = (int) Math.max(1, (reachable + PAGE_SIZE - 1) / PAGE_SIZE);
+        return new Export(q, first, lastPage);
+    }
+
+    /**
+     * Writes all pages of {@code export}. A failure after the first page is reported as a final
+     * {@code {"error": ...}} line, since the status has already been sent.
+     *
+     * @return the number of repository lines written
+     * @throws IOException when the client goes away; nothing further is fetched
+     */
+    public long stream(Export export, OutputStream out) throws IOException {
+        long written = 0;
+        GitHubSearchResponse page = export.firstPage();
+        Future<GitHubSearchResponse> next = null;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (int pageNo = 1; ; pageNo++) {
+                boolean more = pageNo < export.lastPage() && page.items().size() == PAGE_SIZE;
+                if (more) {
+                    int n = pageNo + 1;
+                    next = fanOutExecutor.submit(() -> searchCache.search(export.query(), PAGE_SIZE, n));
+                }
+                written += writePage(json, page.items());
+                json.flush();
+                if (!more) break;
+                try {
+                    page = await(next);
+                    next = null;
+                } catch (RuntimeException ex) {
+                    next = null;
+                    writeError(json, ex);
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            log.atInfo().log("Export for q='{}' stopped after {} records: {}", export.query(), written, ex.getMessage());
+            throw ex;
+        } finally {
+            if (next != null) next.cancel(true);
+        }
+        log.atInfo().log("Finished export of {} records for q='{}'", written, export.query());
+        return written;
+    }
+
+    private int writePage(JsonGenerator json, List<GitHubRepoItem> items) throws IOException {
+        repositoryIndex.record(items);
+        double[] scores = scoringService.scorePage(items);
+        for (int i = 0; i < scores.length; i++) {
+            lineWriter.writeValue(json, Mappers.toRepositoryResponse(items.get(i), roundScore(scores[i])));
+            json.writeRaw('\n');
+        }
+        return scores.length;
+    }
+
+    private void writeError(JsonGenerator json, RuntimeException ex) throws IOException {
+        ErrorResponse error = ErrorResponses.forException(ex, PATH).getBody();
+        lineWriter.writeValue(json, Map.of("error", error));
+        json.writeRaw('\n');
+        json.flush();
+    }
+
+    private static GitHubSearchResponse await(Future<GitHubSearchResponse> next) {
+        try {
+            return next.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted while exporting", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new GitHubApiException(502, "Page fetch failed during export", ex.getCause());
+        }
+    }
+
+    public record Export(
+            String query,
+            GitHubSearchResponse firstPage,
+            int lastPage
+    ) {}
+}
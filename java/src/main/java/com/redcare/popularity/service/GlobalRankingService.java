@@ -0,0 +1,90 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.domain.PopularityResult;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.mapper.Mappers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Ranks across several upstream pages: pages are fetched in parallel and each one is folded
+ * into a K-sized heap as soon as it completes, so memory stays O(K) and latency tracks the slowest page.
+ */
+@Service
+@Slf4j
+public class GlobalRankingService {
+    static final int PAGE_SIZE = 100;
+
+    private final GitHubSearchCache searchCache;
+    private final ScoringService scoringService;
+    private final ExecutorService fanOutExecutor;
+    private final RepositoryIndex repositoryIndex;
+
+    public GlobalRankingService(GitHubSearchCache searchCache, ScoringService scoringService,
+                                @Qualifier("gitHubFanOutExecutor") ExecutorService fanOutExecutor,
+                                RepositoryIndex repositoryIndex) {
+        this.searchCache = searchCache;
+        this.scoringService = scoringService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.repositoryIndex = repositoryIndex;
+    }
+
+    public PopularityResponse topK(String language, LocalDate createdAfter, String query, int k, int pages) {
+        return topK(language, createdAfter, query, k, pages, null);
+    }
+
+    public PopularityResponse topK(String language, LocalDate createdAfter, String query, int k, int pages,
+                                   String profileName) {
+        ScoringFunction profile = scoringService.profile(profileName);
+        log.atInfo().log("Start ranking top {} repositories across {} pages", k, pages);
+
+        String q = PopularityService.buildQuery(language, createdAfter, query);
+        CompletionService<GitHubSearchResponse> completion = new ExecutorCompletionService<>(fanOutExecutor);
+        List<Future<GitHubSearchResponse>> futures = new ArrayList<>(pages);
+        for (int page = 1; page <= pages; page++) {
+            int p = page;
+            futures.add(completion.submit(() -> searchCache.search(q, PAGE_SIZE, p)));
+        }
+
+        TopKHeap heap = new TopKHeap(k);
+        long totalCount = 0;
+        try {
+            for (int i = 0; i < pages; i++) {
+                GitHubSearchResponse resp = completion.take().get();
+                totalCount = Math.max(totalCount, resp.totalCount());
+                List<GitHubRepoItem> items = resp.items();
+                repositoryIndex.record(items);
+                double[] scores = scoringService.scorePage(items, profile);
+                for (int j = 0; j < scores.length; j++) {
+                    heap.offer(items.get(j), scores[j]);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted while ranking q='" + q + "'", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new GitHubApiException(502, "Page fetch failed for q='" + q + "'", ex.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        log.atInfo().log("Finished ranking top {} repositories", k);
+        return Mappers.toPopularityResponse(new PopularityResult(totalCount, heap.toSortedList()));
+    }
+}
@@ -0,0 +1,193 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.mapper.Mappers;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores, sorts and maps one upstream page in a single pass. Pure CPU work, shared by the blocking
+ * and reactive paths.
+ * <p>
+ * The page is scored in one batch against a single clock read. Each item's rounded score (in hundredths)
+ * and its page index are packed into one {@code long}, so the ranking is a primitive sort with no comparator
+ * or boxing; ties keep upstream order. Response DTOs are written straight from the upstream items in ranked order.
+ */
+@Component
+public class PopularityRanker {
+    private static final int INDEX_BITS = 23;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final ScoringService scoringService;
+    private final StageMetrics live;
+    private final StageMetrics indexed;
+
+    public PopularityRanker(ScoringService scoringService) {
+        this(scoringService, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public PopularityRanker(ScoringService scoringService, MeterRegistry meterRegistry) {
+        this.scoringService = scoringService;
+        this.live = new StageMetrics(meterRegistry, "live");
+        this.indexed = new StageMetrics(meterRegistry, "index");
+    }
+
+    public PopularityResponse rank(GitHubSearchResponse resp) {
+        return rank(resp, scoringService.defaultProfile());
+    }
+
+    /** Resolves a profile name from a request; see {@link ScoringService#profile}. */
+    public ScoringFunction profile(String name) {
+        return scoringService.profile(name);
+    }
+
+    public PopularityResponse rank(GitHubSearchResponse resp, ScoringFunction profile) {
+        List<GitHubRepoItem> items = resp.items();
+        int n = items.size();
+        if (n > INDEX_MASK) {
+            throw new IllegalArgumentException("Too many items to rank in one page: " + n);
+        }
+
+        long start = System.nanoTime();
+        double[] scores = scoringService.scorePage(items, profile);
+        long scored = System.nanoTime();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = key(scores[i], i);
+        }
+        Arrays.sort(keys);
+        long sorted = System.nanoTime();
+
+        RepositoryResponse[] ranked = new RepositoryResponse[n];
+        for (int r = 0; r < n; r++) {
+            long key = keys[n - 1 - r];
+            int index = (int) (INDEX_MASK - (key & INDEX_MASK));
+            ranked[r] = Mappers.toRepositoryResponse(items.get(index), (key >> INDEX_BITS) / 100.0);
+        }
+        live.record(start, scored, sorted, System.nanoTime(), n);
+        return new PopularityResponse(resp.totalCount(), n, Collections.unmodifiableList(Arrays.asList(ranked)));
+    }
+
+    /**
+     * Ranks local index matches and maps only the requested page. A bounded min-heap of packed keys keeps the
+     * best {@code offset + limit} matches, so the cost is O(n log k) and only returned items are read back.
+     */
+    public PopularityResponse rankIndexed(RepositoryIndex index, RepositoryIndex.Matches matches, int offset, int limit,
+                                          ScoringFunction profile) {
+        int n = matches.size();
+        if (n > INDEX_MASK) {
+            throw new IllegalArgumentException("Too many index matches to rank: " + n);
+        }
+        long start = System.nanoTime();
+        double[] scores = new double[n];
+        scoringService.computeScores(matches.stars(), matches.forks(), matches.updatedEpochSeconds(), scores, profile);
+        long scored = System.nanoTime();
+
+        int k = (int) Math.min(n, (long) offset + limit);
+        long[] heap = new long[k];
+        int size = 0;
+        for (int i = 0; i < n && k > 0; i++) {
+            long key = key(scores[i], i);
+            if (size < k) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        long sorted = System.nanoTime();
+
+        List<RepositoryResponse> ranked = new ArrayList<>(Math.max(0, size - offset));
+        for (int r = offset; r < size; r++) {
+            long key = heap[size - 1 - r];
+            int i = (int) (INDEX_MASK - (key & INDEX_MASK));
+            RepositoryIndex.Indexed indexed = index.read(matches.slots()[i]);
+            ranked.add(Mappers.toRepositoryResponse(indexed.item(), (key >> INDEX_BITS) / 100.0,
+                    OffsetDateTime.ofInstant(indexed.indexedAt(), ZoneOffset.UTC)));
+        }
+        indexed.record(start, scored, sorted, System.nanoTime(), ranked.size());
+        return new PopularityResponse(n, ranked.size(), Collections.unmodifiableList(ranked));
+    }
+
+    /** Rounded score in hundredths above the position; lower positions win ties. */
+    private static long key(double score, int position) {
+        return (Math.round(score * 100.0) << INDEX_BITS) | (INDEX_MASK - position);
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (key <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    /** {@code popularity.rank} timers per stage and the number of items per response, for one source. */
+    private static final class StageMetrics {
+        private final Timer score;
+        private final Timer sort;
+        private final Timer map;
+        private final DistributionSummary items;
+
+        StageMetrics(MeterRegistry registry, String source) {
+            this.score = stage(registry, source, "score");
+            this.sort = stage(registry, source, "sort");
+            this.map = stage(registry, source, "map");
+            this.items = DistributionSummary.builder("popularity.response.items")
+                    .description("Repositories per popularity response")
+                    .tag("source", source)
+                    .register(registry);
+        }
+
+        void record(long start, long scored, long sorted, long mapped, int count) {
+            score.record(scored - start, TimeUnit.NANOSECONDS);
+            sort.record(sorted - scored, TimeUnit.NANOSECONDS);
+            map.record(mapped - sorted, TimeUnit.NANOSECONDS);
+            items.record(count);
+        }
+
+        private static Timer stage(MeterRegistry registry, String source, String stage) {
+            return Timer.builder("popularity.rank")
+                    .description("CPU time per ranking stage")
+                    .tag("source", source)
+                    .tag("stage", stage)
+                    .register(registry);
+        }
+    }
+}
@@ -1,55 +1,121 @@
 package com.redcare.popularity.service;
 
-import com.redcare.popularity.client.GitHubClient;
-import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.cache.HotQueryTracker;
+import com.redcare.popularity.cache.PeerCache;
+import com.redcare.popularity.cache.SearchKey;
 import com.redcare.popularity.client.model.GitHubSearchResponse;
 import com.redcare.popularity.controller.dto.PopularityResponse;
-import com.redcare.popularity.domain.PopularityResult;
-import com.redcare.popularity.domain.RepositoryScore;
-import com.redcare.popularity.mapper.Mappers;
+import com.redcare.popularity.exception.InvalidQueryException;
+import com.redcare.popularity.index.RepositoryIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 import java.util.StringJoiner;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PopularityService {
-    private final GitHubClient gitHubClient;
-    private final ScoringService scoringService;
+    private final GitHubSearchCache searchCache;
+    private final PopularityRanker ranker;
+    private final SearchCoalescer searchCoalescer;
+    private final RepositoryIndex repositoryIndex;
+    private final HotQueryTracker hotQueryTracker;
+    private final StaleFallback staleFallback;
+    private final PeerCache peerCache;
 
     public PopularityResponse searchAndScore(String language, LocalDate createdAfter, String query,
                                              int perPage, int page) {
+        return searchAndScoreServed(language, createdAfter, query, perPage, page, null).response();
+    }
+
+    /**
+     * Like {@link #searchAndScore}, but says whether the response is a last-known-good one served while GitHub is
+     * rate limiting, unavailable or slow, and how old it is. {@code profileName} picks a scoring profile; null uses
+     * the default.
+     */
+    public StaleFallback.Served searchAndScoreServed(String language, LocalDate createdAfter, String query,
+                                                     int perPage, int page, String profileName) {
+        return serve(buildQuery(language, createdAfter, query), perPage, page, profileName, true);
+    }
+
+    /**
+     * Answers a search a peer replica forwarded because this replica owns its key: same caching, coalescing and
+     * stale fallback, but never forwarded again, so replicas with diverging peer lists cannot bounce a search. A
+     * stale answer keeps its age and reason so the asking replica can pass them on.
+     */
+    public StaleFallback.Served searchAndScoreForPeer(String q, int perPage, int page, String profileName) {
+        return serve(q, perPage, page, profileName, false);
+    }
+
+    private StaleFallback.Served serve(String q, int perPage, int page, String profileName, boolean mayForward) {
+        ScoringFunction profile = ranker.profile(profileName);
+        SearchKey key = SearchKey.of(q, perPage, page);
+        hotQueryTracker.record(key);
+        SearchKey scoredKey = scoredKey(key, profile);
+        Supplier<PopularityResponse> local = () -> fetchAndScore(q, perPage, page, profile);
+        Supplier<PopularityResponse> search = mayForward
+                ? () -> peerCache.fetch(key, q, profile.name(), local)
+                : local;
+        return staleFallback.execute(scoredKey, () -> searchCoalescer.execute(scoredKey, search));
+    }
+
+    /**
+     * Coalescing and the last-known-good store hold scored responses, so a non-default profile gets keys of its own.
+     * The upstream cache and hot-query tracking keep using the plain search key.
+     */
+    private SearchKey scoredKey(SearchKey key, ScoringFunction profile) {
+        if (profile == ranker.profile(null)) return key;
+        return key.withProfile(profile.name());
+    }
+
+    private PopularityResponse fetchAndScore(String q, int perPage, int page, ScoringFunction profile) {
         log.atInfo().log("Start searching popular repositories");
 
-        String q = buildQuery(language, createdAfter, query);
-        GitHubSearchResponse resp = gitHubClient.searchRepositories(q, perPage, page);
+        GitHubSearchResponse resp = searchCache.search(q, perPage, page);
+        repositoryIndex.record(resp.items());
         log.atDebug().log("Mapping {} items (GitHub total={}) for q='{}'", resp.items().size(), resp.totalCount(), q);
-        List<RepositoryScore> items = resp.items().stream()
-                .map(it -> Mappers.toRepositoryScore(it, computeScore(it)))
-                .sorted(Comparator.comparingDouble(RepositoryScore::score).reversed())
-                .toList();
+        PopularityResponse response = ranker.rank(resp, profile);
 
         log.atInfo().log("Finished searching popular repositories");
-        return Mappers.toPopularityResponse(new PopularityResult(resp.totalCount(), items));
+        return response;
+    }
+
+    /**
+     * Answers language/created_after filters from the local index with no upstream call. Results carry
+     * {@code indexedAt}; repositories GitHub has never returned to us are missing.
+     */
+    public PopularityResponse searchAndScoreFromIndex(String language, LocalDate createdAfter, int perPage, int page,
+                                                      String profileName) {
+        if (!repositoryIndex.enabled()) {
+            throw new InvalidQueryException("The local index is disabled (github.index.enabled)");
+        }
+        RepositoryIndex.Matches matches = repositoryIndex.match(language, createdAfter);
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * perPage);
+        return ranker.rankIndexed(repositoryIndex, matches, offset, perPage, ranker.profile(profileName));
     }
 
-    private static String buildQuery(String language, LocalDate createdAfter, String query) {
+    public static String buildQuery(String language, LocalDate createdAfter, String query) {
+        return buildQuery(language, createdAfter, query, null);
+    }
+
+    /**
+     * {@code updatedSince} adds an {@code updated:>=} qualifier at second precision, for delta searches.
+     */
+    public static String buildQuery(String language, LocalDate createdAfter, String query, Instant updatedSince) {
         var joiner = new StringJoiner(" ");
 
         if (query != null && !query.isBlank()) joiner.add(query.trim());
         if (language != null && !language.isBlank()) joiner.add("language:" + language.trim());
         if (createdAfter != null) joiner.add("created:>=" + createdAfter);
+        if (updatedSince != null) joiner.add("updated:>=" + updatedSince.truncatedTo(ChronoUnit.SECONDS));
 
         return joiner.toString();
     }
-
-    private double computeScore(GitHubRepoItem gitHubRepoItem) {
-        return scoringService.computeScore(gitHubRepoItem.stargazersCount(), gitHubRepoItem.forksCount(), gitHubRepoItem.updatedAt());
-    }
 }
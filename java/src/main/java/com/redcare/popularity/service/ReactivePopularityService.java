@@ -0,0 +1,29 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.client.ReactiveGitHubClient;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactivePopularityService {
+    private final ReactiveGitHubClient gitHubClient;
+    private final PopularityRanker ranker;
+
+    public Mono<PopularityResponse> searchAndScore(String language, LocalDate createdAfter, String query,
+                                                   int perPage, int page) {
+        String q = PopularityService.buildQuery(language, createdAfter, query);
+        return gitHubClient.searchRepositories(q, perPage, page)
+                .doOnSubscribe(s -> log.atInfo().log("Start searching popular repositories"))
+                .map(ranker::rank)
+                .doOnSuccess(r -> log.atInfo().log("Finished searching popular repositories"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.redcare.popularity.service;
+
+/**
+ * A configurable scoring formula: {@code starsWeight * T(stars) + forksWeight * T(forks) + recencyWeight * R(days)},
+ * where {@code T} is linear or {@code log1p} and {@code R} falls from 100 to 50 over {@code halfLifeDays}, either
+ * hyperbolically (the built-in curve) or exponentially. Unset fields take the built-in value, so
+ * {@link #BUILT_IN} is the formula {@link ScoringService#computeScore} has always used.
+ */
+public record ScoringProfile(
+        Double starsWeight,
+        Double forksWeight,
+        Double recencyWeight,
+        Transform stars,
+        Transform forks,
+        Double halfLifeDays,
+        Decay decay
+) {
+    public static final ScoringProfile BUILT_IN =
+            new ScoringProfile(0.6, 0.3, 0.1, Transform.LINEAR, Transform.LINEAR, 30.0, Decay.HYPERBOLIC);
+
+    public ScoringProfile {
+        starsWeight = starsWeight == null ? 0.6 : starsWeight;
+        forksWeight = forksWeight == null ? 0.3 : forksWeight;
+        recencyWeight = recencyWeight == null ? 0.1 : recencyWeight;
+        stars = stars == null ? Transform.LINEAR : stars;
+        forks = forks == null ? Transform.LINEAR : forks;
+        halfLifeDays = halfLifeDays == null ? 30.0 : halfLifeDays;
+        decay = decay == null ? Decay.HYPERBOLIC : decay;
+        if (!(halfLifeDays > 0)) {
+            throw new IllegalArgumentException("halfLifeDays must be positive: " + halfLifeDays);
+        }
+    }
+
+    public ScoringFunction compile(String name) {
+        return new ScoringFunction(name, this);
+    }
+
+    public enum Transform {
+        LINEAR,
+        LOG
+    }
+
+    public enum Decay {
+        HYPERBOLIC,
+        EXPONENTIAL
+    }
+}
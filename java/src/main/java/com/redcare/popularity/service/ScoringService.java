@@ -1,16 +1,125 @@
 package com.redcare.popularity.service;
 
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.config.ScoringProperties;
+import com.redcare.popularity.exception.InvalidQueryException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class ScoringService {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    static final String BUILT_IN = "built-in";
+
+    private final Clock clock;
+    private final Map<String, ScoringFunction> profiles;
+    private final ScoringFunction defaultProfile;
+
+    public ScoringService() {
+        this(Clock.systemUTC());
+    }
+
+    public ScoringService(Clock clock) {
+        this(clock, new ScoringProperties(null, null));
+    }
+
+    /**
+     * Compiles every configured profile once; requests then only pick one by name.
+     */
+    @Autowired
+    public ScoringService(Clock clock, ScoringProperties properties) {
+        this.clock = clock;
+        Map<String, ScoringFunction> compiled = new HashMap<>();
+        compiled.put(BUILT_IN, ScoringProfile.BUILT_IN.compile(BUILT_IN));
+        properties.profiles().forEach((name, profile) -> compiled.put(name, profile.compile(name)));
+        this.profiles = Map.copyOf(compiled);
+        String defaultName = properties.defaultProfile() == null ? BUILT_IN : properties.defaultProfile();
+        this.defaultProfile = profiles.get(defaultName);
+        if (defaultProfile == null) {
+            throw new IllegalStateException("scoring.defaultProfile '" + defaultName + "' is not a configured profile");
+        }
+    }
+
+    /**
+     * The named profile, or the default one for a null or blank name.
+     */
+    public ScoringFunction profile(String name) {
+        if (name == null || name.isBlank()) return defaultProfile;
+        ScoringFunction profile = profiles.get(name);
+        if (profile == null) {
+            throw new InvalidQueryException("Unknown scoring profile '" + name + "'");
+        }
+        return profile;
+    }
+
+    public ScoringFunction defaultProfile() {
+        return defaultProfile;
+    }
 
     public double computeScore(int stars, int forks, OffsetDateTime updatedAt) {
-        long days = Math.max(0, updatedAt.until(OffsetDateTime.now(), ChronoUnit.DAYS));
+        long days = Math.max(0, updatedAt.until(OffsetDateTime.now(clock), ChronoUnit.DAYS));
         double recency = 100.0 * (1.0 / (1.0 + (days / 30.0)));
         return 0.6 * stars + 0.3 * forks + 0.1 * recency;
     }
+
+    /**
+     * Scores a whole page against one clock read, so every item of a response shares the same "now".
+     * Same formula as {@link #computeScore}; {@code updatedEpochSeconds} replaces the date arithmetic.
+     */
+    public void computeScores(int[] stars, int[] forks, long[] updatedEpochSeconds, double[] scores) {
+        computeScores(stars, forks, updatedEpochSeconds, scores, defaultProfile);
+    }
+
+    public void computeScores(int[] stars, int[] forks, long[] updatedEpochSeconds, double[] scores,
+                              ScoringFunction profile) {
+        profile.score(stars, forks, updatedEpochSeconds, scores, clock.instant().getEpochSecond());
+    }
+
+    public double[] scorePage(List<GitHubRepoItem> items) {
+        return scorePage(items, defaultProfile);
+    }
+
+    /**
+     * Unpacks an upstream page into the primitive columns of {@link #computeScores} and scores it.
+     */
+    public double[] scorePage(List<GitHubRepoItem> items, ScoringFunction profile) {
+        int n = items.size();
+        int[] stars = new int[n];
+        int[] forks = new int[n];
+        long[] updated = new long[n];
+        for (int i = 0; i < n; i++) {
+            GitHubRepoItem it = items.get(i);
+            stars[i] = it.stargazersCount();
+            forks[i] = it.forksCount();
+            updated[i] = it.updatedAt().toEpochSecond();
+        }
+        double[] scores = new double[n];
+        computeScores(stars, forks, updated, scores, profile);
+        return scores;
+    }
+
+    /**
+     * The built-in formula as a fixed kernel against an explicit "now", kept as the reference the compiled profiles
+     * are checked and benchmarked against.
+     */
+    public void computeScores(int[] stars, int[] forks, long[] updatedEpochSeconds, double[] scores, long nowEpochSeconds) {
+        int n = scores.length;
+        if (stars.length < n || forks.length < n || updatedEpochSeconds.length < n) {
+            throw new IllegalArgumentException("Input arrays are shorter than the score array");
+        }
+        for (int i = 0; i < n; i++) {
+            // whole days, truncated like until(..., DAYS); future timestamps count as today
+            long days = Math.max(0, (nowEpochSeconds - updatedEpochSeconds[i]) / SECONDS_PER_DAY);
+            double recency = 100.0 * (1.0 / (1.0 + (days / 30.0)));
+            scores[i] = 0.6 * stars[i] + 0.3 * forks[i] + 0.1 * recency;
+        }
+    }
 }
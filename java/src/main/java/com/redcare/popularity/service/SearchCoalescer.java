@@ -0,0 +1,90 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.SearchKey;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical searches: the first caller for a key runs the search,
+ * concurrent callers for the same key wait on its result. The key is released as soon as the
+ * leader finishes, so a failure is shared only with the callers already waiting on it.
+ */
+@Component
+@Slf4j
+public class SearchCoalescer {
+    private final ConcurrentHashMap<SearchKey, CompletableFuture<PopularityResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long followerTimeoutMillis;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SearchCoalescer(@Value("${github.coalescing.followerTimeoutMillis:6000}") long followerTimeoutMillis) {
+        this.followerTimeoutMillis = followerTimeoutMillis;
+    }
+
+    public PopularityResponse execute(SearchKey key, Supplier<PopularityResponse> search) {
+        CompletableFuture<PopularityResponse> mine = new CompletableFuture<>();
+        CompletableFuture<PopularityResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader == null) {
+            return lead(key, mine, search);
+        }
+        coalesced.increment();
+        log.atDebug().log("Joining in-flight search for {}", key);
+        return follow(key, leader);
+    }
+
+    public CoalescerStats stats() {
+        return new CoalescerStats(executed.sum(), coalesced.sum(), timeouts.sum(), inFlight.size());
+    }
+
+    private PopularityResponse lead(SearchKey key, CompletableFuture<PopularityResponse> mine,
+                                    Supplier<PopularityResponse> search) {
+        executed.increment();
+        try {
+            PopularityResponse result = search.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private PopularityResponse follow(SearchKey key, CompletableFuture<PopularityResponse> leader) {
+        try {
+            return leader.get(followerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            throw new GitHubApiException(504, "Timed out waiting for in-flight search " + key, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException(503, "Interrupted waiting for in-flight search " + key, ex);
+        }
+    }
+
+    public record CoalescerStats(
+            long executed,
+            long coalesced,
+            long timeouts,
+            int inFlight
+    ) {}
+}
@@ -0,0 +1,281 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.GitHubTokenScheduler;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.domain.PopularityResult;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.index.RepositoryIndex;
+import com.redcare.popularity.mapper.Mappers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global top-K past GitHub's 1000-results-per-search cap. The {@code created:} range is split into shards that each
+ * match at most 1000 repositories: a shard's first page is fetched, and if its {@code total_count} is over the cap
+ * it is cut into as many sub-ranges as that count suggests, which are probed in the next round. Cuts sit at
+ * quantiles of the creation dates on the probed page, so sub-ranges hold similar counts rather than similar spans
+ * of days; a guess that still lands over the cap is cut again. Remaining pages of every shard are then fetched in
+ * parallel and folded into one de-duplicated K-sized heap.
+ * <p>
+ * All rounds together spend at most {@code maxRequests} calls, and no more than the rate-limit budget left when
+ * the search starts. When a round cannot afford every cut, the densest shards are cut first and into as many parts
+ * as the budget still allows. A shard left over the cap is ranked from the 1000 results GitHub returns for it, and
+ * pages that do not fit are skipped, page 2 of every shard before any page 3.
+ */
+@Service
+@Slf4j
+public class ShardedRankingService {
+    static final int PAGE_SIZE = 100;
+    static final int RESULT_CAP = 1000;
+    /** Shards are sized for this share of the cap, so a slightly uneven split still fits. */
+    private static final double TARGET_FILL = 0.8;
+    /** GitHub's first public repositories date from late 2007. */
+    static final LocalDate EARLIEST = LocalDate.of(2007, 10, 1);
+
+    private final GitHubSearchCache searchCache;
+    private final ScoringService scoringService;
+    private final ExecutorService fanOutExecutor;
+    private final RepositoryIndex repositoryIndex;
+    private final GitHubTokenScheduler tokenScheduler;
+    private final Clock clock;
+    private final int maxRequests;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder shards = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+
+    public ShardedRankingService(GitHubSearchCache searchCache, ScoringService scoringService,
+                                 @Qualifier("gitHubFanOutExecutor") ExecutorService fanOutExecutor,
+                                 RepositoryIndex repositoryIndex, GitHubTokenScheduler tokenScheduler, Clock clock,
+                                 @Value("${github.sharding.maxRequests:60}") int maxRequests) {
+        this.searchCache = searchCache;
+        this.scoringService = scoringService;
+        this.fanOutExecutor = fanOutExecutor;
+        this.repositoryIndex = repositoryIndex;
+        this.tokenScheduler = tokenScheduler;
+        this.clock = clock;
+        this.maxRequests = maxRequests;
+    }
+
+    public PopularityResponse topK(String language, LocalDate createdAfter, String query, int k, int pagesPerShard,
+                                   String profileName) {
+        ScoringFunction profile = scoringService.profile(profileName);
+        String base = PopularityService.buildQuery(language, null, query);
+        LocalDate to = LocalDate.now(clock);
+        LocalDate from = createdAfter == null || createdAfter.isBefore(EARLIEST) ? EARLIEST : createdAfter;
+        if (from.isAfter(to)) from = to;
+        long available = tokenScheduler.availableBudget(tokenScheduler.searchResource());
+        Run run = new Run(base, profile, new TopKHeap(k), (int) Math.max(1, Math.min(maxRequests, available)));
+        log.atInfo().log("Start sharded ranking of top {} for q='{}' with a budget of {} calls", k, base, run.budget);
+        searches.increment();
+
+        List<Shard> leaves = new ArrayList<>();
+        List<Shard> frontier = List.of(new Shard(from, to));
+        while (!frontier.isEmpty()) {
+            List<Task> probes = frontier.stream().map(s -> new Task(s, 1)).toList();
+            GitHubSearchResponse[] probed = run.fetchAll(probes);
+            List<Integer> dense = new ArrayList<>();
+            for (int i = 0; i < probes.size(); i++) {
+                Shard shard = probes.get(i).shard().withTotal(probed[i].totalCount());
+                if (shard.total() <= RESULT_CAP || shard.days() == 1) {
+                    leaves.add(shard);
+                } else {
+                    dense.add(i);
+                }
+            }
+            dense.sort(Comparator.comparingLong((Integer i) -> probed[i].totalCount()).reversed());
+            List<Shard> next = new ArrayList<>();
+            int unreserved = run.remaining();
+            for (int i : dense) {
+                Shard shard = probes.get(i).shard().withTotal(probed[i].totalCount());
+                int wanted = (int) Math.min(shard.days(), Math.ceil(shard.total() / (RESULT_CAP * TARGET_FILL)));
+                int parts = Math.min(wanted, unreserved);
+                if (parts < 2) {
+                    truncated.increment();
+                    leaves.add(shard);
+                    continue;
+                }
+                unreserved -= parts;
+                next.addAll(shard.split(parts, createdDates(probed[i].items())));
+            }
+            frontier = next;
+        }
+
+        run.fetchAll(remainingPages(leaves, pagesPerShard, run.remaining()));
+        long totalCount = leaves.stream().mapToLong(s -> Math.max(s.total(), 0)).sum();
+        shards.add(leaves.size());
+        log.atInfo().log("Finished sharded ranking over {} shards with {} calls", leaves.size(), run.spent);
+        return Mappers.toPopularityResponse(new PopularityResult(totalCount, run.heap.toSortedList()));
+    }
+
+    public ShardingStats stats() {
+        return new ShardingStats(searches.sum(), shards.sum(), requests.sum(), truncated.sum());
+    }
+
+    /**
+     * Pages 2.. of every shard, ordered page number first so a short budget is spread across all shards.
+     */
+    static List<Task> remainingPages(List<Shard> leaves, int pagesPerShard, int budget) {
+        List<Task> tasks = new ArrayList<>();
+        for (int page = 2; page <= pagesPerShard && tasks.size() < budget; page++) {
+            for (Shard shard : leaves) {
+                long reachable = Math.min(shard.total(), RESULT_CAP);
+                if ((long) (page - 1) * PAGE_SIZE >= reachable) continue;
+                tasks.add(new Task(shard, page));
+                if (tasks.size() == budget) break;
+            }
+        }
+        return tasks;
+    }
+
+    private static List<LocalDate> createdDates(List<GitHubRepoItem> items) {
+        List<LocalDate> dates = new ArrayList<>(items.size());
+        for (GitHubRepoItem item : items) {
+            if (item.createdAt() != null) dates.add(item.createdAt().withOffsetSameInstant(ZoneOffset.UTC).toLocalDate());
+        }
+        return dates;
+    }
+
+    static String shardQuery(String base, Shard shard) {
+        var joiner = new StringJoiner(" ");
+        if (!base.isEmpty()) joiner.add(base);
+        joiner.add("created:" + shard.from() + ".." + shard.to());
+        return joiner.toString();
+    }
+
+    /**
+     * One sharded search: fetched pages are folded into the heap on the calling thread as they complete.
+     */
+    private final class Run {
+        private final String base;
+        private final ScoringFunction profile;
+        private final TopKHeap heap;
+        private final int budget;
+        private int spent;
+
+        Run(String base, ScoringFunction profile, TopKHeap heap, int budget) {
+            this.base = base;
+            this.profile = profile;
+            this.heap = heap;
+            this.budget = budget;
+        }
+
+        int remaining() {
+            return budget - spent;
+        }
+
+        GitHubSearchResponse[] fetchAll(List<Task> tasks) {
+            GitHubSearchResponse[] responses = new GitHubSearchResponse[tasks.size()];
+            if (tasks.isEmpty()) return responses;
+            CompletionService<Integer> completion = new ExecutorCompletionService<>(fanOutExecutor);
+            List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                int index = i;
+                Task task = tasks.get(i);
+                String q = shardQuery(base, task.shard());
+                futures.add(completion.submit(() -> {
+                    responses[index] = searchCache.search(q, PAGE_SIZE, task.page());
+                    return index;
+                }));
+            }
+            spent += tasks.size();
+            requests.add(tasks.size());
+            try {
+                for (int i = 0; i < tasks.size(); i++) {
+                    GitHubSearchResponse resp = responses[completion.take().get()];
+                    List<GitHubRepoItem> items = resp.items();
+                    repositoryIndex.record(items);
+                    double[] scores = scoringService.scorePage(items, profile);
+                    for (int j = 0; j < scores.length; j++) {
+                        heap.offer(items.get(j), scores[j]);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new GitHubApiException(503, "Interrupted while ranking shards of q='" + base + "'", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new GitHubApiException(502, "Shard fetch failed for q='" + base + "'", ex.getCause());
+            } finally {
+                futures.forEach(f -> f.cancel(true));
+            }
+            return responses;
+        }
+    }
+
+    /** A {@code created:} range, both ends inclusive; {@code total} is -1 until probed. */
+    record Shard(
+            LocalDate from,
+            LocalDate to,
+            long total
+    ) {
+        Shard(LocalDate from, LocalDate to) {
+            this(from, to, -1);
+        }
+
+        long days() {
+            return ChronoUnit.DAYS.between(from, to) + 1;
+        }
+
+        Shard withTotal(long total) {
+            return new Shard(from, to, total);
+        }
+
+        /**
+         * Cuts the range into {@code parts} (at most {@link #days()}) sub-ranges of about equal count, taking
+         * {@code sample} as the creation dates seen in it. With fewer sample dates than parts the cuts fall at equal
+         * widths. Every sub-range keeps at least one day.
+         */
+        List<Shard> split(int parts, List<LocalDate> sample) {
+            List<LocalDate> dates = sample.stream().filter(d -> !d.isBefore(from) && !d.isAfter(to)).sorted().toList();
+            long days = days();
+            List<Shard> split = new ArrayList<>(parts);
+            LocalDate start = from;
+            for (int i = 1; i < parts; i++) {
+                LocalDate end = dates.size() >= parts
+                        ? dates.get(i * dates.size() / parts - 1)
+                        : from.plusDays(days * i / parts - 1);
+                LocalDate latest = to.minusDays(parts - i);
+                if (end.isBefore(start)) end = start;
+                if (end.isAfter(latest)) end = latest;
+                split.add(new Shard(start, end));
+                start = end.plusDays(1);
+            }
+            split.add(new Shard(start, to));
+            return split;
+        }
+    }
+
+    record Task(
+            Shard shard,
+            int page
+    ) {}
+
+    public record ShardingStats(
+            long searches,
+            long shards,
+            long requests,
+            long truncated
+    ) {}
+}
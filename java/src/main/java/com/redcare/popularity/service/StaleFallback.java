@@ -0,0 +1,243 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.LastKnownGoodStore;
+import com.redcare.popularity.cache.SearchKey;
+import com.redcare.popularity.exception.ConcurrencyLimitExceededException;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.exception.PeerServedStaleException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Degraded mode for live searches. Every successful response is remembered in {@link LastKnownGoodStore}; when a key
+ * has one and GitHub rate-limits us, is unavailable, the circuit is open, or the live call exceeds
+ * {@code latencyBudgetMillis}, the remembered response is returned at once and the key is revalidated in the
+ * background. Keys with nothing stored behave exactly as without this class, except that a stale answer from the
+ * owner replica is passed on as stale with its original age instead of being remembered.
+ */
+@Component
+@Slf4j
+public class StaleFallback {
+    private final LastKnownGoodStore store;
+    private final ExecutorService revalidationExecutor;
+    private final long latencyBudgetMillis;
+    private final Set<SearchKey> revalidating = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder circuitOpen = new LongAdder();
+    private final LongAdder upstreamUnavailable = new LongAdder();
+    private final LongAdder slowUpstream = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    @Autowired
+    public StaleFallback(LastKnownGoodStore store,
+                         @Qualifier("gitHubRevalidationExecutor") ExecutorService revalidationExecutor,
+                         @Value("${github.staleFallback.latencyBudgetMillis:2000}") long latencyBudgetMillis) {
+        this.store = store;
+        this.revalidationExecutor = revalidationExecutor;
+        this.latencyBudgetMillis = latencyBudgetMillis;
+    }
+
+    /** Always runs the live search on the calling thread; for tests and benchmarks. */
+    public static StaleFallback disabled() {
+        return new StaleFallback(LastKnownGoodStore.disabled(), null, 0);
+    }
+
+    public Served execute(SearchKey key, Supplier<PopularityResponse> live) {
+        LastKnownGoodStore.Stored known = store.get(key);
+        if (known == null) {
+            try {
+                return Served.fresh(remember(key, live.get()));
+            } catch (PeerServedStaleException ex) {
+                return fromOwner(key, null, ex);
+            }
+        }
+        if (latencyBudgetMillis <= 0) {
+            return inline(key, known, live);
+        }
+
+        Future<PopularityResponse> call;
+        try {
+            call = revalidationExecutor.submit(() -> remember(key, live.get()));
+        } catch (RejectedExecutionException ex) {
+            // A full pool says nothing about GitHub, so the search runs unbounded here and falls back only if it fails.
+            log.atDebug().log("Live search pool saturated for {}; searching on the request thread", key);
+            return inline(key, known, live);
+        }
+        try {
+            return Served.fresh(call.get(latencyBudgetMillis, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException ex) {
+            // The call keeps running and stores its result when it completes, so it is the revalidation.
+            slowUpstream.increment();
+            log.atInfo().log("Upstream slower than {} ms for {}; serving last known good", latencyBudgetMillis, key);
+            return stale(known, StaleReason.SLOW_UPSTREAM);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                return degrade(key, known, live, runtime);
+            }
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return stale(known, StaleReason.SLOW_UPSTREAM);
+        }
+    }
+
+    private Served inline(SearchKey key, LastKnownGoodStore.Stored known, Supplier<PopularityResponse> live) {
+        try {
+            return Served.fresh(remember(key, live.get()));
+        } catch (RuntimeException ex) {
+            return degrade(key, known, live, ex);
+        }
+    }
+
+    public StaleStats stats() {
+        return new StaleStats(rateLimited.sum(), circuitOpen.sum(), upstreamUnavailable.sum(), slowUpstream.sum(),
+                revalidations.sum(), store.size());
+    }
+
+    private Served degrade(SearchKey key, LastKnownGoodStore.Stored known, Supplier<PopularityResponse> live,
+                           RuntimeException failure) {
+        if (failure instanceof PeerServedStaleException owner) {
+            return fromOwner(key, known, owner);
+        }
+        StaleReason reason = reasonFor(failure);
+        if (reason == null) {
+            throw failure;
+        }
+        count(reason);
+        log.atInfo().log("Serving last known good for {} ({}): {}", key, reason, failure.getMessage());
+        revalidateInBackground(key, live);
+        return stale(known, reason);
+    }
+
+    /**
+     * The owner replica served its last known good: pass it on with the owner's age and reason (or ours, when ours is
+     * younger) and remember nothing, since it is not a fresh result. The owner revalidates the key itself.
+     */
+    private Served fromOwner(SearchKey key, LastKnownGoodStore.Stored known, PeerServedStaleException owner) {
+        StaleReason reason = parseReason(owner.getReason());
+        count(reason);
+        log.atInfo().log("Owner replica served last known good for {} ({}, {} s old)", key, reason,
+                owner.getAge().toSeconds());
+        if (known != null && store.age(known).compareTo(owner.getAge()) < 0) {
+            return stale(known, reason);
+        }
+        return new Served(owner.getResponse(), owner.getAge(), reason);
+    }
+
+    private void count(StaleReason reason) {
+        switch (reason) {
+            case RATE_LIMITED -> rateLimited.increment();
+            case CIRCUIT_OPEN -> circuitOpen.increment();
+            case UPSTREAM_UNAVAILABLE -> upstreamUnavailable.increment();
+            case SLOW_UPSTREAM -> slowUpstream.increment();
+        }
+    }
+
+    /**
+     * At most one background revalidation per key; when the executor is saturated the key is simply not revalidated
+     * this time.
+     */
+    private void revalidateInBackground(SearchKey key, Supplier<PopularityResponse> live) {
+        if (revalidationExecutor == null || !revalidating.add(key)) {
+            return;
+        }
+        try {
+            revalidationExecutor.execute(() -> {
+                try {
+                    remember(key, live.get());
+                    revalidations.increment();
+                } catch (RuntimeException ex) {
+                    log.atDebug().log("Background revalidation of {} failed: {}", key, ex.getMessage());
+                } finally {
+                    revalidating.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            revalidating.remove(key);
+        }
+    }
+
+    private PopularityResponse remember(SearchKey key, PopularityResponse response) {
+        store.put(key, response);
+        return response;
+    }
+
+    private Served stale(LastKnownGoodStore.Stored known, StaleReason reason) {
+        return new Served(known.response(), store.age(known), reason);
+    }
+
+    private static StaleReason reasonFor(RuntimeException failure) {
+        if (failure instanceof CallNotPermittedException) return StaleReason.CIRCUIT_OPEN;
+        if (failure instanceof ConcurrencyLimitExceededException) return StaleReason.SLOW_UPSTREAM;
+        if (failure instanceof GitHubApiException gitHub) {
+            return switch (gitHub.getStatusCode()) {
+                case 429 -> StaleReason.RATE_LIMITED;
+                // the Feign fallback wraps an open circuit as a 503 too
+                case 503 -> gitHub.getCause() instanceof CallNotPermittedException
+                        ? StaleReason.CIRCUIT_OPEN : StaleReason.UPSTREAM_UNAVAILABLE;
+                case 504 -> StaleReason.SLOW_UPSTREAM;
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    /** Reads a reason as the stale header spells it; one this version does not know counts as unavailable. */
+    private static StaleReason parseReason(String header) {
+        try {
+            return StaleReason.valueOf(header.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return StaleReason.UPSTREAM_UNAVAILABLE;
+        }
+    }
+
+    public enum StaleReason {
+        RATE_LIMITED, CIRCUIT_OPEN, UPSTREAM_UNAVAILABLE, SLOW_UPSTREAM
+    }
+
+    /**
+     * A response and, when it came from the last-known-good store, its age and why it was served.
+     */
+    public record Served(
+            PopularityResponse response,
+            Duration age,
+            StaleReason staleReason
+    ) {
+        static Served fresh(PopularityResponse response) {
+            return new Served(response, Duration.ZERO, null);
+        }
+
+        public boolean stale() {
+            return staleReason != null;
+        }
+    }
+
+    public record StaleStats(
+            long rateLimited,
+            long circuitOpen,
+            long upstreamUnavailable,
+            long slowUpstream,
+            long revalidations,
+            long stored
+    ) {}
+}
@@ -0,0 +1,54 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.domain.RepositoryScore;
+import com.redcare.popularity.mapper.Mappers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.redcare.popularity.util.CommonUtils.roundScore;
+
+/**
+ * Fixed-size min-heap that keeps the K best scored repositories seen so far, de-duplicated by id.
+ * Items that cannot enter the heap are rejected before any mapping happens. Not thread-safe.
+ */
+final class TopKHeap {
+    private static final Comparator<RepositoryScore> BY_SCORE = Comparator.comparingDouble(RepositoryScore::score);
+
+    private final int k;
+    private final PriorityQueue<RepositoryScore> heap;
+    private final Set<Long> ids;
+
+    TopKHeap(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(k, BY_SCORE);
+        this.ids = new HashSet<>(k * 2);
+    }
+
+    void offer(GitHubRepoItem item, double score) {
+        if (ids.contains(item.id())) return;
+        double rounded = roundScore(score);
+        if (heap.size() < k) {
+            add(item, rounded);
+        } else if (rounded > heap.peek().score()) {
+            ids.remove(heap.poll().id());
+            add(item, rounded);
+        }
+    }
+
+    List<RepositoryScore> toSortedList() {
+        List<RepositoryScore> sorted = new ArrayList<>(heap);
+        sorted.sort(BY_SCORE.reversed());
+        return sorted;
+    }
+
+    private void add(GitHubRepoItem item, double rounded) {
+        heap.add(Mappers.toRepositoryScore(item, rounded));
+        ids.add(item.id());
+    }
+}
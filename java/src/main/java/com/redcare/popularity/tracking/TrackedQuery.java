@@ -0,0 +1,163 @@
+package com.redcare.popularity.tracking;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.controller.dto.TrackedQueryResponse;
+import com.redcare.popularity.service.PopularityService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Locally held, ranked result of one tracked search. Repositories are indexed by id and ordered by score in a
+ * {@link TreeSet}, so merging a changed repository costs two O(log n) updates instead of a re-sort. The high-water
+ * mark is the latest {@code updated_at} seen; delta searches ask GitHub for anything updated since then.
+ * <p>
+ * {@code totalCount} is GitHub's count at the last full sync plus the repositories created since then. A delta also
+ * returns older repositories that were merely updated, and those were already counted upstream.
+ */
+final class TrackedQuery {
+    private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(r -> r.item().id());
+
+    private final String id;
+    private final String language;
+    private final LocalDate createdAfter;
+    private final String query;
+    private final int maxItems;
+
+    private final Map<Long, Ranked> byId = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(ORDER);
+    private final Set<Long> createdSinceFullSync = new HashSet<>();
+    private Instant highWaterMark;
+    private Instant lastFullSync;
+    private Instant lastRescore;
+    private Instant lastRefresh;
+    private long totalCount;
+
+    TrackedQuery(String id, String language, LocalDate createdAfter, String query, int maxItems) {
+        this.id = id;
+        this.language = language;
+        this.createdAfter = createdAfter;
+        this.query = query;
+        this.maxItems = maxItems;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String language() {
+        return language;
+    }
+
+    LocalDate createdAfter() {
+        return createdAfter;
+    }
+
+    String query() {
+        return query;
+    }
+
+    synchronized int size() {
+        return ranking.size();
+    }
+
+    synchronized Instant highWaterMark() {
+        return highWaterMark;
+    }
+
+    synchronized Instant lastFullSync() {
+        return lastFullSync;
+    }
+
+    synchronized Instant lastRescore() {
+        return lastRescore;
+    }
+
+    synchronized void replaceAll(List<GitHubRepoItem> items, double[] scores, long totalCount, Instant now) {
+        byId.clear();
+        ranking.clear();
+        createdSinceFullSync.clear();
+        highWaterMark = null;
+        lastFullSync = now;
+        merge(items, scores, now);
+        this.totalCount = totalCount;
+        lastRescore = now;
+    }
+
+    /**
+     * Upserts changed repositories: each one leaves its old position and is inserted at its new score. When more
+     * than {@code maxItems} are held, the lowest ranked are dropped.
+     */
+    synchronized void merge(List<GitHubRepoItem> items, double[] scores, Instant now) {
+        for (int i = 0; i < scores.length; i++) {
+            GitHubRepoItem item = items.get(i);
+            Ranked next = new Ranked(item, scores[i]);
+            Ranked previous = byId.put(item.id(), next);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (item.createdAt() != null && item.createdAt().toInstant().isAfter(lastFullSync)
+                    && createdSinceFullSync.add(item.id())) {
+                totalCount++;
+            }
+            ranking.add(next);
+            if (item.updatedAt() != null) {
+                Instant updated = item.updatedAt().toInstant();
+                if (highWaterMark == null || updated.isAfter(highWaterMark)) highWaterMark = updated;
+            }
+        }
+        while (ranking.size() > maxItems) {
+            byId.remove(ranking.pollLast().item().id());
+        }
+        lastRefresh = now;
+    }
+
+    /** Current items in rank order, for re-scoring all of them against a new clock reading. */
+    synchronized List<GitHubRepoItem> items() {
+        List<GitHubRepoItem> items = new ArrayList<>(ranking.size());
+        ranking.forEach(r -> items.add(r.item()));
+        return items;
+    }
+
+    synchronized void rescore(List<GitHubRepoItem> items, double[] scores, Instant now) {
+        ranking.clear();
+        for (int i = 0; i < scores.length; i++) {
+            Ranked ranked = new Ranked(items.get(i), scores[i]);
+            byId.put(ranked.item().id(), ranked);
+            ranking.add(ranked);
+        }
+        lastRescore = now;
+    }
+
+    synchronized List<Ranked> page(int offset, int limit) {
+        List<Ranked> page = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Ranked> it = ranking.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    synchronized TrackedQueryResponse describe() {
+        return new TrackedQueryResponse(id, PopularityService.buildQuery(language, createdAfter, query), ranking.size(),
+                totalCount, highWaterMark, lastFullSync, lastRefresh);
+    }
+
+    record Ranked(
+            GitHubRepoItem item,
+            double score
+    ) {}
+}
@@ -0,0 +1,221 @@
+package com.redcare.popularity.tracking;
+
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.controller.dto.TrackedQueryRequest;
+import com.redcare.popularity.controller.dto.TrackedQueryResponse;
+import com.redcare.popularity.exception.InvalidQueryException;
+import com.redcare.popularity.exception.TrackedQueryNotFoundException;
+import com.redcare.popularity.mapper.Mappers;
+import com.redcare.popularity.service.PopularityService;
+import com.redcare.popularity.service.ScoringService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.redcare.popularity.util.CommonUtils.roundScore;
+
+/**
+ * Keeps registered searches in sync without re-downloading them. After one full sync, each refresh asks GitHub only
+ * for repositories updated since the query's high-water mark (minus {@code overlapMillis}, since {@code updated_at}
+ * and the search index are not perfectly ordered) and merges those into the locally ranked result, re-scoring just
+ * the changed items. A delta too large for {@code maxDeltaPages} falls back to a full sync, as does every
+ * {@code resyncMillis}, which is also what drops repositories that no longer match. Unchanged items keep the score
+ * they were given until the local re-score every {@code rescoreMillis} moves their recency on.
+ */
+@Service
+@Slf4j
+public class TrackedQueryService {
+    static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+
+    private final GitHubClient client;
+    private final ScoringService scoring;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int maxQueries;
+    private final int maxItems;
+    private final int maxDeltaPages;
+    private final long overlapMillis;
+    private final long resyncMillis;
+    private final long rescoreMillis;
+
+    private final ConcurrentHashMap<String, TrackedQuery> tracked = new ConcurrentHashMap<>();
+    /** The same queries keyed by their search, so registering one is a single atomic step. */
+    private final ConcurrentHashMap<String, TrackedQuery> bySearch = new ConcurrentHashMap<>();
+    private final AtomicInteger slots = new AtomicInteger();
+
+    private final LongAdder deltaSyncs = new LongAdder();
+    private final LongAdder fullSyncs = new LongAdder();
+    private final LongAdder mergedItems = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public TrackedQueryService(GitHubClient client, ScoringService scoring, Clock clock,
+                               @Value("${github.tracking.enabled:true}") boolean enabled,
+                               @Value("${github.tracking.maxQueries:20}") int maxQueries,
+                               @Value("${github.tracking.maxItems:1000}") int maxItems,
+                               @Value("${github.tracking.maxDeltaPages:2}") int maxDeltaPages,
+                               @Value("${github.tracking.overlapMillis:60000}") long overlapMillis,
+                               @Value("${github.tracking.resyncMillis:21600000}") long resyncMillis,
+                               @Value("${github.tracking.rescoreMillis:3600000}") long rescoreMillis) {
+        this.client = client;
+        this.scoring = scoring;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxQueries = maxQueries;
+        this.maxItems = maxItems;
+        this.maxDeltaPages = maxDeltaPages;
+        this.overlapMillis = overlapMillis;
+        this.resyncMillis = resyncMillis;
+        this.rescoreMillis = rescoreMillis;
+    }
+
+    /**
+     * Registers a search and runs its first full sync before returning. Registering the same search twice returns
+     * the existing entry; a concurrent registration of it waits for that first sync.
+     */
+    public TrackedQueryResponse register(TrackedQueryRequest request) {
+        if (!enabled) {
+            throw new InvalidQueryException("Query tracking is disabled (github.tracking.enabled)");
+        }
+        String q = PopularityService.buildQuery(request.language(), request.createdAfter(), request.query());
+        if (q.isEmpty()) {
+            throw new InvalidQueryException("A tracked query needs at least one of language, created_after or query");
+        }
+        return bySearch.computeIfAbsent(q, search -> track(search, request)).describe();
+    }
+
+    private TrackedQuery track(String q, TrackedQueryRequest request) {
+        if (slots.incrementAndGet() > maxQueries) {
+            slots.decrementAndGet();
+            throw new InvalidQueryException("At most " + maxQueries + " queries can be tracked");
+        }
+        TrackedQuery query = new TrackedQuery(UUID.randomUUID().toString(), request.language(),
+                request.createdAfter(), request.query(), maxItems);
+        try {
+            fullSync(query, clock.instant());
+        } catch (RuntimeException ex) {
+            slots.decrementAndGet();
+            throw ex;
+        }
+        tracked.put(query.id(), query);
+        log.atInfo().log("Tracking '{}' as {} with {} repositories", q, query.id(), query.size());
+        return query;
+    }
+
+    public TrackedQueryResponse describe(String id) {
+        return lookup(id).describe();
+    }
+
+    public void remove(String id) {
+        TrackedQuery query = tracked.remove(id);
+        if (query == null) {
+            throw new TrackedQueryNotFoundException(id);
+        }
+        bySearch.remove(PopularityService.buildQuery(query.language(), query.createdAfter(), query.query()), query);
+        slots.decrementAndGet();
+    }
+
+    /**
+     * A page of the locally ranked result; no upstream call. {@code totalCount} is the number of repositories held.
+     */
+    public PopularityResponse page(String id, int perPage, int page) {
+        TrackedQuery query = lookup(id);
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * perPage);
+        List<RepositoryResponse> items = query.page(offset, perPage).stream()
+                .map(r -> Mappers.toRepositoryResponse(r.item(), roundScore(r.score())))
+                .toList();
+        return new PopularityResponse(query.size(), items.size(), items);
+    }
+
+    @Scheduled(fixedDelayString = "${github.tracking.refreshMillis:60000}",
+            initialDelayString = "${github.tracking.refreshMillis:60000}")
+    public void refreshAll() {
+        for (TrackedQuery query : tracked.values()) {
+            try {
+                refresh(query);
+            } catch (RuntimeException ex) {
+                failed.increment();
+                log.atWarn().log("Refreshing tracked query {} failed: {}", query.id(), ex.getMessage());
+            }
+        }
+    }
+
+    public TrackingStats stats() {
+        return new TrackingStats(tracked.size(), deltaSyncs.sum(), fullSyncs.sum(), mergedItems.sum(), failed.sum());
+    }
+
+    private void refresh(TrackedQuery query) {
+        Instant now = clock.instant();
+        Instant highWaterMark = query.highWaterMark();
+        if (highWaterMark == null || !now.isBefore(query.lastFullSync().plusMillis(resyncMillis))) {
+            fullSync(query, now);
+            return;
+        }
+        String q = PopularityService.buildQuery(query.language(), query.createdAfter(), query.query(),
+                highWaterMark.minusMillis(overlapMillis));
+        List<GitHubRepoItem> changed = new ArrayList<>();
+        for (int page = 1; page <= maxDeltaPages; page++) {
+            GitHubSearchResponse resp = client.searchRepositories(q, PAGE_SIZE, page);
+            if (page == 1 && resp.totalCount() > (long) maxDeltaPages * PAGE_SIZE) {
+                log.atInfo().log("Delta of {} for {} exceeds {} pages, resyncing", resp.totalCount(), query.id(), maxDeltaPages);
+                fullSync(query, now);
+                return;
+            }
+            changed.addAll(resp.items());
+            if (resp.items().size() < PAGE_SIZE) break;
+        }
+        deltaSyncs.increment();
+        mergedItems.add(changed.size());
+        query.merge(changed, scoring.scorePage(changed), now);
+        if (!now.isBefore(query.lastRescore().plusMillis(rescoreMillis))) {
+            List<GitHubRepoItem> items = query.items();
+            query.rescore(items, scoring.scorePage(items), now);
+        }
+        log.atDebug().log("Merged {} changed repositories into {}", changed.size(), query.id());
+    }
+
+    private void fullSync(TrackedQuery query, Instant now) {
+        String q = PopularityService.buildQuery(query.language(), query.createdAfter(), query.query());
+        int pages = Math.min(MAX_PAGES, Math.max(1, (maxItems + PAGE_SIZE - 1) / PAGE_SIZE));
+        List<GitHubRepoItem> items = new ArrayList<>();
+        long totalCount = 0;
+        for (int page = 1; page <= pages; page++) {
+            GitHubSearchResponse resp = client.searchRepositories(q, PAGE_SIZE, page);
+            totalCount = resp.totalCount();
+            items.addAll(resp.items());
+            if (resp.items().size() < PAGE_SIZE) break;
+        }
+        fullSyncs.increment();
+        query.replaceAll(items, scoring.scorePage(items), totalCount, now);
+    }
+
+    private TrackedQuery lookup(String id) {
+        TrackedQuery query = tracked.get(id);
+        if (query == null) {
+            throw new TrackedQueryNotFoundException(id);
+        }
+        return query;
+    }
+
+    public record TrackingStats(
+            int tracked,
+            long deltaSyncs,
+            long fullSyncs,
+            long mergedItems,
+            long failed
+    ) {}
+}
@@ -0,0 +1,126 @@
+package com.redcare.popularity.cache;
+
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GitHubSearchCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private GitHubClient gitHubClient;
+    private GitHubSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        gitHubClient = mock(GitHubClient.class);
+        cache = new GitHubSearchCache(gitHubClient, true, 2, 1_000, 100, 10_000, nanos::get);
+    }
+
+    @Test
+    void shouldServeFreshEntryWithoutCallingUpstream() {
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(ResponseEntity.ok(page(1)));
+
+        cache.search("language:Java", 20, 1);
+        cache.search("  LANGUAGE:java ", 20, 1);
+
+        verify(gitHubClient, times(1)).searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void shouldRevalidateWithEtagAndReuseBodyOn304() {
+        GitHubSearchResponse body = page(1);
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), isNull(), isNull()))
+                .thenReturn(ResponseEntity.ok().header(HttpHeaders.ETAG, "\"abc\"").body(body));
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), eq("\"abc\""), isNull()))
+                .thenThrow(new GitHubApiException(304, "Not Modified", null));
+
+        cache.search("q", 20, 1);
+        advanceMillis(2_000);
+        GitHubSearchResponse revalidated = cache.search("q", 20, 1);
+
+        assertSame(body, revalidated);
+        assertEquals(1, cache.stats().revalidations());
+        verify(gitHubClient).searchRepositoriesConditionally("q", 20, 1, "\"abc\"", null);
+    }
+
+    @Test
+    void shouldCacheClientErrorsBriefly() {
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any()))
+                .thenThrow(new GitHubApiException(422, "Unprocessable Entity", null));
+
+        assertThrows(GitHubApiException.class, () -> cache.search("bad", 20, 1));
+        GitHubApiException cached = assertThrows(GitHubApiException.class, () -> cache.search("bad", 20, 1));
+        assertEquals(422, cached.getStatusCode());
+        verify(gitHubClient, times(1)).searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any());
+
+        advanceMillis(200);
+        assertThrows(GitHubApiException.class, () -> cache.search("bad", 20, 1));
+        verify(gitHubClient, times(2)).searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void shouldNotCacheRateLimitOrServerErrors() {
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any()))
+                .thenThrow(new GitHubApiException(429, "Too Many Requests", null))
+                .thenThrow(new GitHubApiException(502, "Bad Gateway", null))
+                .thenReturn(ResponseEntity.ok(page(1)));
+
+        assertThrows(GitHubApiException.class, () -> cache.search("q", 20, 1));
+        assertThrows(GitHubApiException.class, () -> cache.search("q", 20, 1));
+        assertEquals(1, cache.search("q", 20, 1).items().size());
+    }
+
+    @Test
+    void shouldCountEvictionsWhenBoundIsExceeded() {
+        when(gitHubClient.searchRepositoriesConditionally(anyString(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(ResponseEntity.ok(page(1)));
+
+        for (int i = 0; i < 10; i++) {
+            cache.search("q" + i, 20, 1);
+        }
+        cache.search("q", 20, 1);
+
+        assertTrue(cache.stats().evictions() > 0);
+        assertTrue(cache.stats().size() <= 2);
+    }
+
+    @Test
+    void shouldBypassCacheWhenDisabled() {
+        var disabled = new GitHubSearchCache(gitHubClient, false, 2, 1_000, 100, 10_000, nanos::get);
+        when(gitHubClient.searchRepositories(anyString(), anyInt(), anyInt())).thenReturn(page(1));
+
+        disabled.search("q", 20, 1);
+        disabled.search("q", 20, 1);
+
+        verify(gitHubClient, times(2)).searchRepositories("q", 20, 1);
+        verifyNoMoreInteractions(gitHubClient);
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static GitHubSearchResponse page(int size) {
+        var items = java.util.stream.IntStream.range(0, size)
+                .mapToObj(i -> new GitHubRepoItem(i, "r/" + i, "https://x/" + i, "Java", i, i, OffsetDateTime.now()))
+                .toList();
+        return new GitHubSearchResponse(size, List.copyOf(items));
+    }
+}
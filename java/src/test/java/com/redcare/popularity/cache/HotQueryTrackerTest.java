@@ -0,0 +1,57 @@
+package com.redcare.popularity.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotQueryTrackerTest {
+
+    @Test
+    void shouldRankFrequentQueriesFirst() {
+        var tracker = new HotQueryTracker(1024, 8);
+        SearchKey hot = SearchKey.of("language:Java", 20, 1);
+        SearchKey warm = SearchKey.of("language:Go", 20, 1);
+        SearchKey cold = SearchKey.of("language:Rust", 20, 1);
+
+        record(tracker, hot, 10);
+        record(tracker, warm, 4);
+        record(tracker, cold, 1);
+
+        assertEquals(List.of(hot, warm), tracker.top(5, 2));
+        assertTrue(tracker.estimate(hot) >= 10);
+    }
+
+    @Test
+    void shouldKeepHotKeyWhenCandidatesAreFull() {
+        var tracker = new HotQueryTracker(1024, 4);
+        SearchKey hot = SearchKey.of("language:Java", 20, 1);
+        record(tracker, hot, 20);
+
+        for (int i = 0; i < 100; i++) {
+            tracker.record(SearchKey.of("one-off " + i, 20, 1));
+        }
+
+        assertEquals(hot, tracker.top(1, 2).get(0));
+    }
+
+    @Test
+    void shouldDecayCountsOverTime() {
+        var tracker = new HotQueryTracker(16, 4);
+        SearchKey early = SearchKey.of("language:Java", 20, 1);
+        record(tracker, early, 40);
+
+        for (int i = 0; i < 200; i++) {
+            tracker.record(SearchKey.of("filler " + (i % 4), 20, 1));
+        }
+
+        assertTrue(tracker.estimate(early) < 40);
+    }
+
+    private static void record(HotQueryTracker tracker, SearchKey key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
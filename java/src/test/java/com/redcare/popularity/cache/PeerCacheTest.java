@@ -0,0 +1,143 @@
+package com.redcare.popularity.cache;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.controller.wire.PopularityProtobufCodec;
+import com.redcare.popularity.exception.PeerServedStaleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeerCacheTest {
+    private static final String SELF = "http://localhost:1";
+    private static final int VIRTUAL_NODES = 64;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+    private final PopularityResponse local = new PopularityResponse(0, 0, List.of());
+
+    private WireMockServer peer;
+    private PeerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        peer = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        peer.start();
+        cache = new PeerCache(clock, true, SELF, List.of(SELF, peer.baseUrl()), VIRTUAL_NODES, 1_000, 1_000, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        peer.stop();
+    }
+
+    @Test
+    void shouldFetchFromOwnerWhenPeerOwnsKey() {
+        var remote = new PopularityResponse(7, 1, List.of(new RepositoryResponse(1L, "a/a", "https://x/1", "Java",
+                10, 5, OffsetDateTime.parse("2024-01-01T00:00:00Z"), 6.5, null)));
+        peer.stubFor(get(urlPathEqualTo(PeerCache.PATH))
+                .willReturn(aResponse().withStatus(200).withBody(PopularityProtobufCodec.encode(remote))));
+        SearchKey key = keyOwnedBy(peer.baseUrl());
+
+        PopularityResponse result = cache.fetch(key, key.query(), "built-in", () -> fail("owner should answer"));
+
+        assertEquals(remote, result);
+        peer.verify(getRequestedFor(urlPathEqualTo(PeerCache.PATH))
+                .withQueryParam("q", equalTo(key.query()))
+                .withQueryParam("per_page", equalTo("20"))
+                .withQueryParam("profile", equalTo("built-in")));
+        assertEquals(1, cache.stats().forwarded());
+    }
+
+    @Test
+    void shouldRaiseOwnersStaleAnswerWithItsAgeAndReason() {
+        var remote = new PopularityResponse(7, 0, List.of());
+        peer.stubFor(get(urlPathEqualTo(PeerCache.PATH))
+                .willReturn(aResponse().withStatus(200).withHeader("Age", "42").withHeader("X-Served-Stale", "rate_limited")
+                        .withBody(PopularityProtobufCodec.encode(remote))));
+        SearchKey key = keyOwnedBy(peer.baseUrl());
+
+        PeerServedStaleException ex = assertThrows(PeerServedStaleException.class,
+                () -> cache.fetch(key, key.query(), null, () -> fail("owner should answer")));
+
+        assertEquals(remote, ex.getResponse());
+        assertEquals(Duration.ofSeconds(42), ex.getAge());
+        assertEquals("rate_limited", ex.getReason());
+        assertEquals(1, cache.stats().forwarded());
+    }
+
+    @Test
+    void shouldSearchLocallyWhenSelfOwnsKey() {
+        SearchKey key = keyOwnedBy(SELF);
+
+        assertSame(local, cache.fetch(key, key.query(), null, () -> local));
+
+        peer.verify(0, getRequestedFor(urlPathEqualTo(PeerCache.PATH)));
+        assertEquals(1, cache.stats().owned());
+    }
+
+    @Test
+    void shouldSearchLocallyWhenOwnerAnswersWithError() {
+        peer.stubFor(get(urlPathEqualTo(PeerCache.PATH)).willReturn(aResponse().withStatus(429)));
+        SearchKey key = keyOwnedBy(peer.baseUrl());
+
+        assertSame(local, cache.fetch(key, key.query(), null, () -> local));
+        assertSame(local, cache.fetch(key, key.query(), null, () -> local));
+
+        // an error answer is not a dead peer, so it is asked again
+        peer.verify(2, getRequestedFor(urlPathEqualTo(PeerCache.PATH)));
+        assertEquals(2, cache.stats().fallbacks());
+    }
+
+    @Test
+    void shouldSkipOwnerWhenUnreachable() {
+        peer.stubFor(get(urlPathEqualTo(PeerCache.PATH)).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        SearchKey key = keyOwnedBy(peer.baseUrl());
+
+        assertSame(local, cache.fetch(key, key.query(), null, () -> local));
+        assertSame(local, cache.fetch(key, key.query(), null, () -> local));
+
+        peer.verify(1, getRequestedFor(urlPathEqualTo(PeerCache.PATH)));
+        assertEquals(2, cache.stats().fallbacks());
+    }
+
+    @Test
+    void shouldMoveOnlyRemovedNodesKeysWhenRingShrinks() {
+        var full = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        var shrunk = new ConsistentHashRing(List.of("a", "b"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < 1_000; i++) {
+            String key = "language:java " + i;
+            String before = full.owner(key);
+            if (!before.equals(shrunk.owner(key))) {
+                assertEquals("c", before);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > 200 && moved < 470, "c should have owned roughly a third of the keys, moved " + moved);
+        assertEquals(Set.of("a", "b", "c"), full.nodes());
+    }
+
+    private SearchKey keyOwnedBy(String node) {
+        var ring = new ConsistentHashRing(List.of(SELF, peer.baseUrl()), VIRTUAL_NODES);
+        for (int i = 0; ; i++) {
+            SearchKey key = SearchKey.of("language:java stars:>" + i, 20, 1);
+            if (ring.owner(PeerCache.ringKey(key)).equals(node)) return key;
+        }
+    }
+}
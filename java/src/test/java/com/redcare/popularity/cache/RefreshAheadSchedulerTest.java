@@ -0,0 +1,99 @@
+package com.redcare.popularity.cache;
+
+import com.redcare.popularity.client.GitHubTokenScheduler;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshAheadSchedulerTest {
+
+    private final SearchKey hot = SearchKey.of("language:Java", 20, 1);
+    private final SearchKey other = SearchKey.of("language:Go", 20, 1);
+    private GitHubSearchCache cache;
+    private GitHubTokenScheduler tokenScheduler;
+    private HotQueryTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        cache = mock(GitHubSearchCache.class);
+        tokenScheduler = mock(GitHubTokenScheduler.class);
+        when(tokenScheduler.stats()).thenReturn(new GitHubTokenScheduler.SchedulerStats(1, 0, 0, 0));
+        when(tokenScheduler.searchResource()).thenReturn(GitHubTokenScheduler.Resource.SEARCH);
+        when(tokenScheduler.availableBudget(GitHubTokenScheduler.Resource.SEARCH)).thenReturn(30L);
+        tracker = new HotQueryTracker(1024, 8);
+        for (int i = 0; i < 5; i++) {
+            tracker.record(hot);
+            tracker.record(other);
+        }
+    }
+
+    @Test
+    void shouldRefreshOnlyHotEntriesAboutToExpire() {
+        when(cache.freshForMillis(hot)).thenReturn(2_000L);
+        when(cache.freshForMillis(other)).thenReturn(50_000L);
+
+        var refresher = scheduler(0.2);
+        refresher.refreshHotQueries();
+
+        verify(cache).refresh(hot);
+        verify(cache, never()).refresh(other);
+        assertEquals(1, refresher.stats().refreshed());
+    }
+
+    @Test
+    void shouldNotFetchQueriesThatAreNotCached() {
+        when(cache.freshForMillis(any())).thenReturn(Long.MIN_VALUE);
+
+        scheduler(0.2).refreshHotQueries();
+
+        verify(cache, never()).refresh(any());
+    }
+
+    @Test
+    void shouldStayWithinBudgetShare() {
+        when(cache.freshForMillis(any())).thenReturn(1_000L);
+
+        var refresher = scheduler(0.01);
+        refresher.refreshHotQueries();
+
+        verify(cache, times(1)).refresh(any());
+        assertEquals(1, refresher.stats().skippedForBudget());
+    }
+
+    @Test
+    void shouldCountFailedRefreshes() {
+        when(cache.freshForMillis(any())).thenReturn(1_000L);
+        doThrow(new GitHubApiException(502, "boom", null)).when(cache).refresh(any());
+
+        var refresher = scheduler(1.0);
+        refresher.refreshHotQueries();
+
+        assertEquals(2, refresher.stats().failed());
+        assertEquals(0, refresher.stats().refreshed());
+    }
+
+    @Test
+    void shouldKeepRefreshingOtherKeysWhenOneFailsUnexpectedly() {
+        when(cache.freshForMillis(any())).thenReturn(1_000L);
+        doThrow(new IllegalStateException("decoder blew up")).when(cache).refresh(hot);
+
+        var refresher = scheduler(1.0);
+        refresher.refreshHotQueries();
+
+        verify(cache).refresh(other);
+        assertEquals(1, refresher.stats().failed());
+        assertEquals(1, refresher.stats().refreshed());
+    }
+
+    private RefreshAheadScheduler scheduler(double budgetShare) {
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+        return new RefreshAheadScheduler(cache, tracker, tokenScheduler, clock, 16, 2, 10_000, budgetShare, 30, 60_000);
+    }
+}
@@ -0,0 +1,144 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.ConcurrencyLimitExceededException;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    private final Request.Options options = new Request.Options(50, TimeUnit.MILLISECONDS, 1, TimeUnit.SECONDS, true);
+
+    @Test
+    void shouldRejectWithoutCallingGitHubWhenLimitReached() throws Exception {
+        var limiter = limiter(1);
+        var calls = new AtomicInteger();
+        var client = new ConcurrencyLimitingClient(ok(calls, 200), limiter);
+
+        Response first = client.execute(request(), options);
+        ConcurrencyLimitExceededException ex = assertThrows(ConcurrencyLimitExceededException.class,
+                () -> client.execute(request(), options));
+        first.close();
+        client.execute(request(), options).close();
+
+        assertEquals(503, ex.getStatusCode());
+        assertEquals(2, calls.get());
+        assertEquals(new AdaptiveConcurrencyLimiter.LimiterStats(1, 0, 2, 1), limiter.stats());
+    }
+
+    @Test
+    void shouldShrinkLimitWhenLatencyRisesAndRecoverWhenItFalls() {
+        var limiter = limiter(20);
+
+        feed(limiter, 100, 10);
+        assertEquals(20, limiter.stats().limit());
+
+        feed(limiter, 100, 80);
+        assertTrue(limiter.stats().limit() < 10, "limit should shrink under a brownout: " + limiter.stats().limit());
+
+        feed(limiter, 200, 10);
+        assertEquals(20, limiter.stats().limit());
+    }
+
+    @Test
+    void shouldNotRaiseLimitWhenMostlyIdle() {
+        var limiter = new AdaptiveConcurrencyLimiter(true, 10, 2, 20, 0.2, 1.5, System::nanoTime);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * MILLIS, 1);
+        }
+
+        assertEquals(10, limiter.stats().limit());
+    }
+
+    @Test
+    void shouldBackOffWhenGitHubFails() throws Exception {
+        var limiter = limiter(20);
+        var client = new ConcurrencyLimitingClient(ok(new AtomicInteger(), 502), limiter);
+
+        for (int i = 0; i < 10; i++) {
+            client.execute(request(), options).close();
+        }
+        Client failing = (request, opts) -> {
+            throw new IOException("connection reset");
+        };
+        assertThrows(IOException.class, () -> new ConcurrencyLimitingClient(failing, limiter).execute(request(), options));
+
+        assertEquals(6, limiter.stats().limit());
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    void shouldNotCountWaitForRateBudgetAsGitHubLatency() throws Exception {
+        List<Long> samples = new CopyOnWriteArrayList<>();
+        var limiter = new AdaptiveConcurrencyLimiter(true, 2, 2, 2, 0.2, 1.5, System::nanoTime) {
+            @Override
+            synchronized void onSample(long rttNanos, int inFlightAtStart) {
+                samples.add(rttNanos);
+                super.onSample(rttNanos, inFlightAtStart);
+            }
+        };
+        // one call per 200 ms window, so every call after the first waits for budget
+        var scheduler = new GitHubTokenScheduler(List.of(), 1, 200, 1_000, System::currentTimeMillis);
+        var client = new RateLimitAwareClient(new ConcurrencyLimitingClient(ok(new AtomicInteger(), 200), limiter), scheduler);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            client.execute(request(), options).close();
+        }
+
+        assertTrue(System.nanoTime() - start >= 300 * MILLIS, "calls should have waited for the rate budget");
+        assertEquals(3, samples.size());
+        samples.forEach(rtt -> assertTrue(rtt < 100 * MILLIS, "sampled the token wait: " + rtt / MILLIS + " ms"));
+        assertEquals(2, limiter.stats().limit());
+    }
+
+    @Test
+    void shouldReturnTokenOfCallShedByLimit() throws Exception {
+        var limiter = limiter(1);
+        var scheduler = new GitHubTokenScheduler(List.of(), 10, 60_000, 0, System::currentTimeMillis);
+        var client = new RateLimitAwareClient(new ConcurrencyLimitingClient(ok(new AtomicInteger(), 200), limiter), scheduler);
+
+        Response first = client.execute(request(), options);
+        assertThrows(ConcurrencyLimitExceededException.class, () -> client.execute(request(), options));
+        first.close();
+
+        assertEquals(9, scheduler.availableBudget(GitHubTokenScheduler.Resource.SEARCH));
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int limit) {
+        return new AdaptiveConcurrencyLimiter(true, limit, Math.min(2, limit), limit, 0.2, 1.5, System::nanoTime);
+    }
+
+    private static void feed(AdaptiveConcurrencyLimiter limiter, int samples, long latencyMillis) {
+        for (int i = 0; i < samples; i++) {
+            limiter.onSample(latencyMillis * MILLIS, limiter.stats().limit());
+        }
+    }
+
+    private static Client ok(AtomicInteger calls, int status) {
+        return (request, opts) -> {
+            calls.incrementAndGet();
+            return Response.builder().request(request).status(status).reason("OK").headers(Map.of())
+                    .body("{}", StandardCharsets.UTF_8).build();
+        };
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "https://api.github.com/search/repositories", Map.of(), null,
+                StandardCharsets.UTF_8, new RequestTemplate());
+    }
+}
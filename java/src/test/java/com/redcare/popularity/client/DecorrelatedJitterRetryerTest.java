@@ -0,0 +1,83 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.GitHubApiException;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.RetryableException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecorrelatedJitterRetryerTest {
+
+    private static final long NOW = 1_000_000L;
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void shouldBackOffWithinBoundsUntilAttemptsAreExhausted() {
+        var retryer = new DecorrelatedJitterRetryer(4, 100, 1_000, () -> NOW, sleeps::add);
+        RetryableException e = serverError(null);
+
+        retryer.continueOrPropagate(e);
+        retryer.continueOrPropagate(e);
+        retryer.continueOrPropagate(e);
+        GitHubApiException exhausted = assertThrows(GitHubApiException.class, () -> retryer.continueOrPropagate(e));
+
+        assertEquals(502, exhausted.getStatusCode());
+        assertEquals(3, sleeps.size());
+        sleeps.forEach(s -> assertTrue(s >= 100 && s <= 1_000, "backoff out of range: " + s));
+    }
+
+    @Test
+    void shouldHonourRetryAfterWithinCap() {
+        var retryer = new DecorrelatedJitterRetryer(3, 100, 2_000, () -> NOW, sleeps::add);
+
+        retryer.continueOrPropagate(serverError(NOW + 1_500));
+
+        assertEquals(List.of(1_500L), sleeps);
+    }
+
+    @Test
+    void shouldGiveUpWhenRetryAfterExceedsCap() {
+        var retryer = new DecorrelatedJitterRetryer(3, 100, 2_000, () -> NOW, sleeps::add);
+
+        assertThrows(GitHubApiException.class, () -> retryer.continueOrPropagate(serverError(NOW + 60_000)));
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    void shouldMapExhaustedIoFailuresToGatewayTimeout() {
+        var retryer = new DecorrelatedJitterRetryer(1, 100, 2_000, () -> NOW, sleeps::add);
+        var timeout = new RetryableException(-1, "Read timed out", Request.HttpMethod.GET,
+                new IOException("Read timed out"), (Long) null, request());
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> retryer.continueOrPropagate(timeout));
+        assertEquals(504, ex.getStatusCode());
+    }
+
+    @Test
+    void shouldStartFreshForEachInvocation() {
+        var retryer = new DecorrelatedJitterRetryer(2, 100, 2_000, () -> NOW, sleeps::add);
+        retryer.continueOrPropagate(serverError(null));
+
+        var clone = retryer.clone();
+
+        assertDoesNotThrow(() -> clone.continueOrPropagate(serverError(null)));
+    }
+
+    private static RetryableException serverError(Long retryAfter) {
+        return new RetryableException(502, "Bad Gateway", Request.HttpMethod.GET,
+                new GitHubApiException(502, "Bad Gateway", null), retryAfter, request());
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "https://api.github.com/search/repositories", Map.of(),
+                null, StandardCharsets.UTF_8, new RequestTemplate());
+    }
+}
@@ -0,0 +1,84 @@
+package com.redcare.popularity.client;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Realistic {@code /search/repositories} bodies: every item carries the full set of REST fields
+ * (URLs, flags, nested owner and license objects), not just the eight the service reads.
+ */
+public final class GitHubSearchPayloads {
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2024, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private GitHubSearchPayloads() {
+    }
+
+    public static String page(int size) {
+        StringBuilder sb = new StringBuilder(size * 6_000);
+        sb.append("{\"total_count\":").append(size * 10).append(",\"incomplete_results\":false,\"items\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(',');
+            item(sb, i);
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void item(StringBuilder sb, int i) {
+        String name = "repo-" + i;
+        String owner = "owner-" + (i % 17);
+        String full = owner + "/" + name;
+        String api = "https://api.github.com/repos/" + full;
+        String updated = ISO.format(BASE.minusDays(i % 90).minusSeconds(i * 37L));
+        sb.append('{')
+                .append("\"id\":").append(100_000 + i).append(',')
+                .append("\"node_id\":\"MDEwOlJlcG9zaXRvcnk").append(i).append("\",")
+                .append("\"name\":\"").append(name).append("\",")
+                .append("\"full_name\":\"").append(full).append("\",")
+                .append("\"private\":false,");
+        sb.append("\"owner\":{")
+                .append("\"login\":\"").append(owner).append("\",\"id\":").append(9_000 + i % 17).append(',')
+                .append("\"node_id\":\"MDQ6VXNlcj").append(i % 17).append("\",")
+                .append("\"avatar_url\":\"https://avatars.githubusercontent.com/u/").append(9_000 + i % 17).append("?v=4\",")
+                .append("\"gravatar_id\":\"\",\"url\":\"https://api.github.com/users/").append(owner).append("\",")
+                .append("\"html_url\":\"https://github.com/").append(owner).append("\",")
+                .append("\"followers_url\":\"https://api.github.com/users/").append(owner).append("/followers\",")
+                .append("\"repos_url\":\"https://api.github.com/users/").append(owner).append("/repos\",")
+                .append("\"type\":\"User\",\"site_admin\":false},");
+        sb.append("\"html_url\":\"https://github.com/").append(full).append("\",")
+                .append("\"description\":\"A sample repository number ").append(i).append(" with a moderately long description \\\"quoted\\\" text.\",")
+                .append("\"fork\":false,\"url\":\"").append(api).append("\",");
+        for (String rel : new String[]{"forks", "keys", "collaborators", "teams", "hooks", "issue_events", "events",
+                "assignees", "branches", "tags", "blobs", "git_tags", "git_refs", "trees", "statuses", "languages",
+                "stargazers", "contributors", "subscribers", "subscription", "commits", "git_commits", "comments",
+                "issue_comment", "contents", "compare", "merges", "archive", "downloads", "issues", "pulls",
+                "milestones", "notifications", "labels", "releases", "deployments"}) {
+            sb.append('"').append(rel).append("_url\":\"").append(api).append('/').append(rel).append("\",");
+        }
+        sb.append("\"created_at\":\"2020-01-01T00:00:00Z\",")
+                .append("\"updated_at\":\"").append(updated).append("\",")
+                .append("\"pushed_at\":\"").append(updated).append("\",")
+                .append("\"git_url\":\"git://github.com/").append(full).append(".git\",")
+                .append("\"ssh_url\":\"git@github.com:").append(full).append(".git\",")
+                .append("\"clone_url\":\"https://github.com/").append(full).append(".git\",")
+                .append("\"homepage\":null,\"size\":").append(1_000 + i).append(',')
+                .append("\"stargazers_count\":").append((i * 7919) % 50_000).append(',')
+                .append("\"watchers_count\":").append((i * 7919) % 50_000).append(',')
+                .append("\"language\":").append(i % 11 == 0 ? "null" : "\"Java\"").append(',')
+                .append("\"has_issues\":true,\"has_projects\":true,\"has_downloads\":true,\"has_wiki\":true,")
+                .append("\"has_pages\":false,\"has_discussions\":false,")
+                .append("\"forks_count\":").append((i * 104_729) % 9_000).append(',')
+                .append("\"mirror_url\":null,\"archived\":false,\"disabled\":false,")
+                .append("\"open_issues_count\":").append(i % 300).append(',');
+        sb.append("\"license\":{\"key\":\"apache-2.0\",\"name\":\"Apache License 2.0\",\"spdx_id\":\"Apache-2.0\",")
+                .append("\"url\":\"https://api.github.com/licenses/apache-2.0\",\"node_id\":\"MDc6TGljZW5zZTI=\"},");
+        sb.append("\"allow_forking\":true,\"is_template\":false,\"web_commit_signoff_required\":false,")
+                .append("\"topics\":[\"java\",\"spring\",\"framework\"],\"visibility\":\"public\",")
+                .append("\"forks\":").append((i * 104_729) % 9_000).append(',')
+                .append("\"open_issues\":").append(i % 300).append(',')
+                .append("\"watchers\":").append((i * 7919) % 50_000).append(',')
+                .append("\"default_branch\":\"main\",\"score\":1.0")
+                .append('}');
+    }
+}
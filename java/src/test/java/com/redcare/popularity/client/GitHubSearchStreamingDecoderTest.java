@@ -0,0 +1,88 @@
+package com.redcare.popularity.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubSearchStreamingDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final GitHubSearchStreamingDecoder decoder = new GitHubSearchStreamingDecoder(objectMapper.getFactory(),
+            (response, type) -> fail("fallback must not be used for search responses"));
+
+    @Test
+    void shouldDecodeSameItemsAsDataBinding() throws Exception {
+        String json = GitHubSearchPayloads.page(100);
+
+        GitHubSearchResponse expected = objectMapper.readValue(json, GitHubSearchResponse.class);
+        GitHubSearchResponse actual = (GitHubSearchResponse) decoder.decode(response(json), GitHubSearchResponse.class);
+
+        assertEquals(expected.totalCount(), actual.totalCount());
+        assertEquals(expected.items().size(), actual.items().size());
+        for (int i = 0; i < expected.items().size(); i++) {
+            GitHubRepoItem e = expected.items().get(i);
+            GitHubRepoItem a = actual.items().get(i);
+            assertEquals(e.id(), a.id());
+            assertEquals(e.fullName(), a.fullName());
+            assertEquals(e.htmlUrl(), a.htmlUrl());
+            assertEquals(e.language(), a.language());
+            assertEquals(e.stargazersCount(), a.stargazersCount());
+            assertEquals(e.forksCount(), a.forksCount());
+            assertTrue(e.updatedAt().isEqual(a.updatedAt()));
+        }
+    }
+
+    @Test
+    void shouldNotConfuseNestedOwnerIdWithRepositoryId() throws Exception {
+        String json = "{\"items\":[{\"owner\":{\"id\":7,\"html_url\":\"https://github.com/o\"},"
+                + "\"id\":42,\"html_url\":\"https://github.com/o/r\",\"updated_at\":\"2024-01-01T00:00:00Z\"}],\"total_count\":1}";
+
+        GitHubSearchResponse resp = (GitHubSearchResponse) decoder.decode(response(json), GitHubSearchResponse.class);
+
+        assertEquals(1, resp.totalCount());
+        assertEquals(42, resp.items().get(0).id());
+        assertEquals("https://github.com/o/r", resp.items().get(0).htmlUrl());
+        assertNull(resp.items().get(0).language());
+    }
+
+    @Test
+    void shouldSkipNonObjectItemsAndKeepReadingThePage() throws Exception {
+        String json = "{\"items\":[null,{\"id\":1},7,[{\"id\":99}],\"x\",{\"id\":2}],\"total_count\":2}";
+
+        GitHubSearchResponse resp = (GitHubSearchResponse) decoder.decode(response(json), GitHubSearchResponse.class);
+
+        assertEquals(2, resp.totalCount());
+        assertEquals(List.of(1L, 2L), resp.items().stream().map(GitHubRepoItem::id).toList());
+    }
+
+    @Test
+    void shouldParseNonUtcTimestampsThroughFallback() {
+        assertEquals(OffsetDateTime.parse("2024-01-01T10:00:00+02:00"),
+                GitHubSearchStreamingDecoder.parseTimestamp("2024-01-01T10:00:00+02:00"));
+        assertEquals(OffsetDateTime.parse("2024-01-31T12:34:56Z"),
+                GitHubSearchStreamingDecoder.parseTimestamp("2024-01-31T12:34:56Z"));
+    }
+
+    private static Response response(String json) {
+        Request request = Request.create(Request.HttpMethod.GET, "https://api.github.com/search/repositories",
+                Map.of(), null, StandardCharsets.UTF_8, new RequestTemplate());
+        return Response.builder().request(request).status(200).reason("OK").headers(Map.of())
+                .body(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), json.length()).build();
+    }
+}
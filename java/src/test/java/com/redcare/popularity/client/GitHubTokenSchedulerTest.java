@@ -0,0 +1,109 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.redcare.popularity.client.GitHubTokenScheduler.Resource.GRAPHQL;
+import static com.redcare.popularity.client.GitHubTokenScheduler.Resource.SEARCH;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitHubTokenSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void shouldLeaseTokenWithMostRemainingBudget() {
+        var scheduler = new GitHubTokenScheduler(List.of("a", "b"), 30, 60_000, 0, now::get);
+
+        GitHubTokenScheduler.Lease first = scheduler.acquire(SEARCH);
+        first.complete(200, headers(Map.of("X-RateLimit-Remaining", "3", "X-RateLimit-Reset", resetIn(60))));
+        GitHubTokenScheduler.Lease second = scheduler.acquire(SEARCH);
+
+        assertNotEquals(first.token(), second.token());
+        second.complete(200, headers(Map.of("X-RateLimit-Remaining", "20", "X-RateLimit-Reset", resetIn(60))));
+        assertEquals(second.token(), scheduler.acquire(SEARCH).token());
+    }
+
+    @Test
+    void shouldShedWithoutCallingUpstreamWhenAllBudgetsAreSpent() {
+        var scheduler = new GitHubTokenScheduler(List.of("a"), 30, 60_000, 0, now::get);
+
+        scheduler.acquire(SEARCH).complete(200, headers(Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", resetIn(30))));
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> scheduler.acquire(SEARCH));
+        assertEquals(429, ex.getStatusCode());
+        assertEquals(1, scheduler.stats().shed());
+    }
+
+    @Test
+    void shouldRestoreBudgetAfterResetPasses() {
+        var scheduler = new GitHubTokenScheduler(List.of("a"), 30, 60_000, 0, now::get);
+        scheduler.acquire(SEARCH).complete(200, headers(Map.of(
+                "X-RateLimit-Limit", "30", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", resetIn(30))));
+
+        now.addAndGet(31_000);
+
+        assertEquals("a", scheduler.acquire(SEARCH).token());
+        assertEquals(29, scheduler.availableBudget(SEARCH));
+    }
+
+    @Test
+    void shouldHonourRetryAfter() {
+        var scheduler = new GitHubTokenScheduler(List.of("a"), 30, 60_000, 0, now::get);
+        scheduler.acquire(SEARCH).complete(429, headers(Map.of("Retry-After", "5")));
+
+        assertThrows(GitHubApiException.class, () -> scheduler.acquire(SEARCH));
+        now.addAndGet(5_000);
+        assertNotNull(scheduler.acquire(SEARCH));
+    }
+
+    @Test
+    void shouldQueueUntilNextWindowWhenWithinMaxWait() {
+        var scheduler = new GitHubTokenScheduler(List.of(), 1, 50, 1_000, System::currentTimeMillis);
+
+        assertNull(scheduler.acquire(SEARCH).token());
+        long start = System.nanoTime();
+        assertNull(scheduler.acquire(SEARCH).token());
+
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        assertEquals(1, scheduler.stats().queued());
+    }
+
+    @Test
+    void shouldKeepGraphQlPointsOutOfSearchBudget() {
+        var scheduler = new GitHubTokenScheduler(List.of("a"), 30, 60_000, 5000, 3_600_000, GRAPHQL, 0, now::get);
+
+        scheduler.acquire(GRAPHQL).complete(200, headers(Map.of("X-RateLimit-Resource", "graphql",
+                "X-RateLimit-Limit", "5000", "X-RateLimit-Remaining", "4990", "X-RateLimit-Reset", resetIn(3600))));
+
+        assertEquals(4990, scheduler.availableBudget(GRAPHQL));
+        assertEquals(30, scheduler.availableBudget(SEARCH));
+        assertEquals(GRAPHQL, scheduler.searchResource());
+    }
+
+    @Test
+    void shouldRecordBudgetTheResponseNamesRatherThanTheLeasedOne() {
+        var scheduler = new GitHubTokenScheduler(List.of("a"), 30, 60_000, 0, now::get);
+
+        scheduler.acquire(SEARCH).complete(200, headers(Map.of("X-RateLimit-Resource", "graphql",
+                "X-RateLimit-Remaining", "100", "X-RateLimit-Reset", resetIn(3600))));
+        scheduler.acquire(SEARCH).complete(200, headers(Map.of("X-RateLimit-Resource", "core",
+                "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", resetIn(3600))));
+
+        assertEquals(100, scheduler.availableBudget(GRAPHQL));
+        assertEquals(28, scheduler.availableBudget(SEARCH));
+    }
+
+    private String resetIn(long seconds) {
+        return String.valueOf(now.get() / 1000 + seconds);
+    }
+
+    private static Function<String, String> headers(Map<String, String> values) {
+        return values::get;
+    }
+}
@@ -0,0 +1,93 @@
+package com.redcare.popularity.client;
+
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.client.model.GraphQlRequest;
+import com.redcare.popularity.client.model.GraphQlSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQlSearchBatcherTest {
+
+    private final List<GraphQlRequest> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldSendConcurrentSearchesAsOneAliasedRequest() throws Exception {
+        var batcher = new GraphQlSearchBatcher(echoing(), 3, 5_000, 5_000);
+        List<String> languages = List.of("Java", "Go", "Rust");
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<GitHubSearchResponse>> futures = new ArrayList<>();
+            for (String language : languages) {
+                futures.add(pool.submit(() -> batcher.search("language:" + language, 10, 1)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                GitHubSearchResponse resp = futures.get(i).get(5, TimeUnit.SECONDS);
+                assertEquals("language:" + languages.get(i), resp.items().get(0).fullName());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, sent.size());
+        assertEquals(1, batcher.stats().batches());
+        assertEquals(3, batcher.stats().searches());
+        String query = sent.get(0).query();
+        assertTrue(query.contains("s2: search(query: $q2"));
+        assertTrue(query.contains("stargazerCount forkCount updatedAt"));
+    }
+
+    @Test
+    void shouldSendAloneAfterLingerWhenNobodyJoins() {
+        var batcher = new GraphQlSearchBatcher(echoing(), 10, 1, 5_000);
+
+        GitHubSearchResponse resp = batcher.search("language:Java", 20, 3);
+
+        assertEquals(1, resp.items().size());
+        assertEquals(1, sent.size());
+        assertEquals("Y3Vyc29yOjQw", sent.get(0).variables().get("a0"));
+    }
+
+    @Test
+    void shouldFailOnlyTheAliasGitHubReportedAnErrorFor() {
+        GitHubGraphQlClient client = request -> new GraphQlSearchResponse(Map.of(),
+                List.of(new GraphQlSearchResponse.Error("RATE_LIMITED", "slow down", List.of("s0"))));
+        var batcher = new GraphQlSearchBatcher(client, 1, 0, 5_000);
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> batcher.search("language:Java", 20, 1));
+        assertEquals(429, ex.getStatusCode());
+    }
+
+    @Test
+    void shouldMapPageNumbersToOffsetCursors() {
+        assertNull(GraphQlSearchBatcher.cursorBefore(100, 1));
+        assertEquals("Y3Vyc29yOjEwMA==", GraphQlSearchBatcher.cursorBefore(100, 2));
+    }
+
+    /** Answers every alias with one repository named after the query it was searched with. */
+    private GitHubGraphQlClient echoing() {
+        return request -> {
+            sent.add(request);
+            Map<String, GraphQlSearchResponse.Connection> data = new LinkedHashMap<>();
+            for (int i = 0; request.variables().containsKey("q" + i); i++) {
+                String q = (String) request.variables().get("q" + i);
+                data.put("s" + i, new GraphQlSearchResponse.Connection(1, List.of(new GraphQlSearchResponse.Node(
+                        (long) i, q, "https://x/" + i, new GraphQlSearchResponse.Language("Java"),
+                        10, 1, OffsetDateTime.parse("2024-01-01T00:00:00Z"), null))));
+            }
+            return new GraphQlSearchResponse(data, null);
+        };
+    }
+}
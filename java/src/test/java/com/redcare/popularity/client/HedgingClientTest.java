@@ -0,0 +1,100 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingClientTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldHedgeSlowAttemptAndReturnFasterResponse() throws Exception {
+        var active = new AtomicInteger();
+        var nextIsSlow = new AtomicBoolean();
+        Client delegate = (request, options) -> {
+            active.incrementAndGet();
+            try {
+                if (nextIsSlow.compareAndSet(true, false)) {
+                    sleep(2_000);
+                    return response(request, 500);
+                }
+                sleep(5);
+                return response(request, 200);
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+        var client = new HedgingClient(delegate, executor, 0.5, 20);
+        for (int i = 0; i < 64; i++) {
+            client.execute(request(), new Request.Options()).close();
+        }
+        // a hedge fired during warm-up on a slow machine must not take the slow turn
+        while (active.get() > 0) {
+            Thread.sleep(1);
+        }
+        nextIsSlow.set(true);
+        long hedged = client.hedgedCount();
+        long hedgeWins = client.hedgeWinCount();
+
+        long start = System.nanoTime();
+        Response response = client.execute(request(), new Request.Options());
+
+        assertEquals(200, response.status());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(hedged + 1, client.hedgedCount());
+        assertEquals(hedgeWins + 1, client.hedgeWinCount());
+    }
+
+    @Test
+    void shouldNotHedgeBeforeEnoughSamples() throws Exception {
+        var calls = new AtomicInteger();
+        Client delegate = (request, options) -> {
+            calls.incrementAndGet();
+            sleep(50);
+            return response(request, 200);
+        };
+        var client = new HedgingClient(delegate, executor, 0.5, 1);
+
+        client.execute(request(), new Request.Options());
+
+        assertEquals(1, calls.get());
+        assertEquals(0, client.hedgedCount());
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "https://api.github.com/search/repositories", Map.of(),
+                null, StandardCharsets.UTF_8, new RequestTemplate());
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder().request(request).status(status).reason("x").headers(Map.of())
+                .body(new byte[0]).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldTagExchangesWithStatusAndOutcome() throws Exception {
+        var client = new MeteredClient(respondingWith(200, Map.of()), registry);
+        client.execute(request(), new Request.Options());
+        client.execute(request(), new Request.Options());
+
+        assertEquals(2, registry.get(MeteredClient.METRIC).tags("status", "200", "outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void shouldClassifyRateLimited403SeparatelyFromOtherClientErrors() throws Exception {
+        new MeteredClient(respondingWith(403, Map.of(GitHubTokenScheduler.REMAINING, List.of("0"))), registry)
+                .execute(request(), new Request.Options());
+        new MeteredClient(respondingWith(403, Map.of()), registry).execute(request(), new Request.Options());
+
+        assertEquals(1, registry.get(MeteredClient.METRIC).tags("status", "403", "outcome", "RATE_LIMITED").timer().count());
+        assertEquals(1, registry.get(MeteredClient.METRIC).tags("status", "403", "outcome", "CLIENT_ERROR").timer().count());
+    }
+
+    @Test
+    void shouldRecordIoErrorsAndRethrow() {
+        Client failing = (request, options) -> {
+            throw new IOException("connection reset");
+        };
+        var client = new MeteredClient(failing, registry);
+
+        assertThrows(IOException.class, () -> client.execute(request(), new Request.Options()));
+        assertEquals(1, registry.get(MeteredClient.METRIC).tags("outcome", "IO_ERROR").timer().count());
+    }
+
+    private static Client respondingWith(int status, Map<String, Collection<String>> headers) {
+        return (request, options) -> Response.builder().request(request).status(status).reason("x").headers(headers)
+                .body(new byte[0]).build();
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "https://api.github.com/search/repositories", Map.of(),
+                null, StandardCharsets.UTF_8, new RequestTemplate());
+    }
+}
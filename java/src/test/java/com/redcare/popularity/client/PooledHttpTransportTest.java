@@ -0,0 +1,77 @@
+package com.redcare.popularity.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.okhttp.OkHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledHttpTransportTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private WireMockServer wm;
+
+    @BeforeEach
+    void setUp() {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wm.start();
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .willReturn(okJson(GitHubSearchPayloads.page(50))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wm.stop();
+    }
+
+    @Test
+    void shouldReuseOneConnectionAndDecompressBodies() throws Exception {
+        var client = new OkHttpClient(PooledHttpTransport.create(
+                new PooledHttpTransport.Settings(5, 60_000, true, true), registry));
+
+        String first = body(client.execute(request(), new Request.Options()));
+        String second = body(client.execute(request(), new Request.Options()));
+
+        assertEquals(GitHubSearchPayloads.page(50), first);
+        assertEquals(first, second);
+        assertEquals(1, registry.get(TransportMetricsListener.CONNECTIONS).counter().count());
+        assertEquals(1, registry.get(TransportMetricsListener.ACQUIRED).tag("reused", "true").counter().count());
+        wm.verify(2, getRequestedFor(urlPathEqualTo("/search/repositories"))
+                .withHeader("Accept-Encoding", containing("gzip")));
+        assertTrue(registry.get(TransportMetricsListener.RESPONSE_BYTES).summary().max() < first.length(),
+                "bytes on the wire should be compressed");
+    }
+
+    @Test
+    void shouldAskForIdentityWhenCompressionIsOff() throws Exception {
+        var client = new OkHttpClient(PooledHttpTransport.create(
+                new PooledHttpTransport.Settings(5, 60_000, true, false), registry));
+
+        assertEquals(GitHubSearchPayloads.page(50), body(client.execute(request(), new Request.Options())));
+        wm.verify(getRequestedFor(urlPathEqualTo("/search/repositories"))
+                .withHeader("Accept-Encoding", equalTo("identity")));
+    }
+
+    private Request request() {
+        return Request.create(Request.HttpMethod.GET, wm.baseUrl() + "/search/repositories?q=java", Map.of(),
+                null, StandardCharsets.UTF_8, new RequestTemplate());
+    }
+
+    private static String body(Response response) throws Exception {
+        try (response; InputStream in = response.body().asInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
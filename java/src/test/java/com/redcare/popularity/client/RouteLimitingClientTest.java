@@ -0,0 +1,65 @@
+package com.redcare.popularity.client;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLimitingClientTest {
+
+    private static final String URL = "https://api.github.com/search/repositories";
+    private final Request.Options options = new Request.Options(50, TimeUnit.MILLISECONDS, 1, TimeUnit.SECONDS, true);
+
+    @Test
+    void shouldHoldSlotUntilBodyIsClosed() throws Exception {
+        var client = new RouteLimitingClient(ok(), 1);
+
+        Response first = client.execute(request(URL), options);
+        assertThrows(IOException.class, () -> client.execute(request(URL), options));
+
+        first.close();
+        try (Response second = client.execute(request(URL), options)) {
+            assertEquals(200, second.status());
+        }
+        assertEquals(1, client.available(RouteLimitingClient.route(URL)));
+    }
+
+    @Test
+    void shouldLimitEachRouteSeparately() throws Exception {
+        var client = new RouteLimitingClient(ok(), 1);
+
+        Response github = client.execute(request(URL), options);
+        try (Response other = client.execute(request("http://localhost:8089/search"), options)) {
+            assertEquals(200, other.status());
+        }
+        github.close();
+    }
+
+    @Test
+    void shouldReleaseSlotWhenTransportFails() {
+        Client failing = (request, opts) -> {
+            throw new IOException("connection reset");
+        };
+        var client = new RouteLimitingClient(failing, 1);
+
+        assertThrows(IOException.class, () -> client.execute(request(URL), options));
+        assertEquals(1, client.available(RouteLimitingClient.route(URL)));
+    }
+
+    private static Client ok() {
+        return (request, opts) -> Response.builder().request(request).status(200).reason("OK").headers(Map.of())
+                .body("{}", StandardCharsets.UTF_8).build();
+    }
+
+    private static Request request(String url) {
+        return Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, new RequestTemplate());
+    }
+}
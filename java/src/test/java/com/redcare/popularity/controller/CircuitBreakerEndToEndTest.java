@@ -0,0 +1,91 @@
+package com.redcare.popularity.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "github.retry.maxAttempts=1",
+        "github.cache.enabled=false",
+        "github.concurrencyLimit.enabled=false",
+        // one success and one failure open the circuit
+        "github.circuitBreaker.slidingWindowSize=2",
+        "github.circuitBreaker.minimumCalls=2",
+        "github.circuitBreaker.failureRateThreshold=50",
+        "github.circuitBreaker.openMillis=60000"
+})
+@AutoConfigureMockMvc
+class CircuitBreakerEndToEndTest {
+
+    private static WireMockServer wm;
+
+    @BeforeAll
+    static void setup() {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wm.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void shouldPointFeignToWireMock(DynamicPropertyRegistry registry) {
+        registry.add("github.apiBaseUrl", () -> wm.baseUrl());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldServeLastKnownGoodAsCircuitOpenWithoutCallingGitHubWhenCircuitOpens() throws Exception {
+        // a rate limit keeps its status through the fallback and does not count as a failure
+        wm.stubFor(get(urlPathEqualTo("/search/repositories")).willReturn(aResponse().withStatus(429)));
+        popularity().andExpect(status().isTooManyRequests());
+
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .willReturn(okJson("{\"total_count\":1,\"items\":[{\"id\":1,\"full_name\":\"a/a\",\"html_url\":\"https://x/1\","
+                        + "\"language\":\"Java\",\"stargazers_count\":10,\"forks_count\":5,\"updated_at\":\"2024-01-01T00:00:00Z\"}]}")));
+        popularity()
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Served-Stale"));
+
+        wm.stubFor(get(urlPathEqualTo("/search/repositories")).willReturn(aResponse().withStatus(503)));
+        popularity()
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Served-Stale", "upstream_unavailable"));
+
+        popularity()
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Served-Stale", "circuit_open"))
+                .andExpect(jsonPath("$.totalCount").value(1));
+        wm.verify(3, getRequestedFor(urlPathEqualTo("/search/repositories")));
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.transitions")
+                .tag("from", "CLOSED").tag("to", "OPEN").counter().count());
+    }
+
+    private org.springframework.test.web.servlet.ResultActions popularity() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/repos/popularity").param("query", "breaker")
+                .accept(MediaType.APPLICATION_JSON));
+    }
+}
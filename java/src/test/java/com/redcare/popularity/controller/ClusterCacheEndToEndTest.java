@@ -0,0 +1,100 @@
+package com.redcare.popularity.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.redcare.popularity.PopularityApplication;
+import com.redcare.popularity.cache.PeerCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two replicas on localhost sharing one peer list: whichever replica is asked, GitHub sees the search once.
+ */
+class ClusterCacheEndToEndTest {
+
+    private static WireMockServer wm;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static String firstUrl;
+    private static String secondUrl;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wm.start();
+        firstUrl = "http://localhost:" + freePort();
+        secondUrl = "http://localhost:" + freePort();
+        first = replica(firstUrl);
+        second = replica(secondUrl);
+    }
+
+    @AfterAll
+    static void teardown() {
+        if (second != null) second.close();
+        if (first != null) first.close();
+        wm.stop();
+    }
+
+    @Test
+    void shouldCallGitHubOnceWhenBothReplicasServeTheSameSearch() {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("language:Java created:>=2024-01-01"))
+                .willReturn(okJson("{\"total_count\":1,\"items\":[{" +
+                        "\"id\": 101, \"full_name\": \"a/a\", \"html_url\": \"https://x/1\", \"language\": \"Java\", " +
+                        "\"stargazers_count\": 10, \"forks_count\": 5, \"updated_at\": \"2024-01-01T00:00:00Z\"}]}")));
+
+        String fromFirst = popularity(firstUrl);
+        String fromSecond = popularity(secondUrl);
+
+        assertEquals(fromFirst, fromSecond);
+        wm.verify(1, getRequestedFor(urlPathEqualTo("/search/repositories")));
+        PeerCache.PeerStats a = first.getBean(PeerCache.class).stats();
+        PeerCache.PeerStats b = second.getBean(PeerCache.class).stats();
+        assertEquals(1, a.forwarded() + b.forwarded());
+        assertEquals(0, a.fallbacks() + b.fallbacks());
+    }
+
+    @Test
+    void shouldReturn400WhenPeerPageSizeIsOutOfRange() {
+        int status = RestClient.create(firstUrl).get()
+                .uri(PeerCache.PATH + "?q=language:Java&per_page=101&page=1")
+                .exchange((request, response) -> response.getStatusCode().value());
+
+        assertEquals(400, status);
+        wm.verify(0, getRequestedFor(urlPathEqualTo("/search/repositories")).withQueryParam("per_page", equalTo("101")));
+    }
+
+    private static String popularity(String baseUrl) {
+        return RestClient.create(baseUrl).get()
+                .uri("/repos/popularity?language=Java&created_after=2024-01-01")
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static ConfigurableApplicationContext replica(String self) {
+        return new SpringApplicationBuilder(PopularityApplication.class).run(
+                "--server.port=" + self.substring(self.lastIndexOf(':') + 1),
+                "--spring.cloud.compatibility-verifier.enabled=false",
+                "--github.retry.maxAttempts=1",
+                "--github.apiBaseUrl=" + wm.baseUrl(),
+                "--github.cluster.enabled=true",
+                "--github.cluster.self=" + self,
+                "--github.cluster.peers=" + firstUrl + "," + secondUrl);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
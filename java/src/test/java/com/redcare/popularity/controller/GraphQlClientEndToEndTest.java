@@ -0,0 +1,78 @@
+package com.redcare.popularity.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "github.retry.maxAttempts=1",
+        "github.graphql.enabled=true",
+        "github.graphql.lingerMillis=0"
+})
+@AutoConfigureMockMvc
+class GraphQlClientEndToEndTest {
+
+    private static WireMockServer wm;
+
+    @BeforeAll
+    static void setup() {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wm.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void shouldPointFeignToWireMock(DynamicPropertyRegistry registry) {
+        registry.add("github.apiBaseUrl", () -> wm.baseUrl());
+        registry.add("github.token", () -> "test-token-123");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldSearchThroughGraphQlWhenEnabled() throws Exception {
+        wm.stubFor(post(urlPathEqualTo("/graphql"))
+                .withRequestBody(matchingJsonPath("$.variables.q0", equalTo("language:Java created:>=2024-01-01")))
+                .withRequestBody(matchingJsonPath("$.variables.n0", equalTo("20")))
+                .willReturn(okJson("{\"data\":{\"s0\":{\"repositoryCount\":2,\"nodes\":[" +
+                        "{\"databaseId\":101,\"nameWithOwner\":\"a/a\",\"url\":\"https://x/1\",\"primaryLanguage\":{\"name\":\"Java\"}," +
+                        "\"stargazerCount\":10,\"forkCount\":5,\"updatedAt\":\"2024-01-01T00:00:00Z\",\"createdAt\":\"2024-01-01T00:00:00Z\"}," +
+                        "{\"databaseId\":102,\"nameWithOwner\":\"b/b\",\"url\":\"https://x/2\",\"primaryLanguage\":null," +
+                        "\"stargazerCount\":5,\"forkCount\":10,\"updatedAt\":\"2024-01-01T00:00:00Z\",\"createdAt\":\"2024-01-01T00:00:00Z\"}" +
+                        "]}}}")));
+
+        mockMvc.perform(get("/repos/popularity")
+                        .param("language", "Java")
+                        .param("created_after", "2024-01-01")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(101))
+                .andExpect(jsonPath("$.items[0].name").value("a/a"))
+                .andExpect(jsonPath("$.items[1].language").value(nullValue()));
+
+        wm.verify(postRequestedFor(urlPathEqualTo("/graphql"))
+                .withHeader("Authorization", equalTo("Bearer test-token-123")));
+        wm.verify(0, getRequestedFor(urlPathEqualTo("/search/repositories")));
+    }
+}
@@ -2,9 +2,13 @@ package com.redcare.popularity.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.wire.PopularityProtobufCodec;
+import com.redcare.popularity.controller.wire.ProtobufPopularityConverter;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -196,4 +200,90 @@ class PopularityControllerEndToEndTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.status").value(429));
     }
+
+    @Test
+    void shouldReturnPerSpecResultsAndErrorsForBatch() throws Exception {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("batch-ok language:Go"))
+                .willReturn(okJson("{\"total_count\":1,\"items\":[{" +
+                        "\"id\": 201, \"full_name\": \"g/g\", \"html_url\": \"https://x/g\", \"language\": \"Go\", \"stargazers_count\": 3, \"forks_count\": 1, \"updated_at\": \"2024-01-01T00:00:00Z\"}]}")));
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("batch-bad"))
+                .willReturn(aResponse().withStatus(422).withBody("{\"message\":\"Validation Failed\"}")));
+
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/repos/popularity/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"specs\":[{\"language\":\"Go\",\"query\":\"batch-ok\",\"per_page\":5}," +
+                                "{\"query\":\"batch-bad\"}]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].result.items[0].id").value(201))
+                .andExpect(jsonPath("$.results[1].error.status").value(400));
+    }
+
+    @Test
+    void shouldReturn400WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/repos/popularity/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"specs\":[]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldServeProtobufAndSmileWhenAccepted() throws Exception {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("wire-formats"))
+                .willReturn(okJson("{\"total_count\":1,\"items\":[{" +
+                        "\"id\": 301, \"full_name\": \"w/w\", \"html_url\": \"https://x/w\", \"language\": \"Java\", \"stargazers_count\": 7, \"forks_count\": 2, \"updated_at\": \"2024-01-01T00:00:00Z\"}]}")));
+
+        byte[] protobuf = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/repos/popularity")
+                        .param("query", "wire-formats")
+                        .accept(ProtobufPopularityConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufPopularityConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/repos/popularity")
+                        .param("query", "wire-formats")
+                        .accept(PopularityController.SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PopularityController.SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PopularityResponse fromProtobuf = PopularityProtobufCodec.decode(protobuf);
+        PopularityResponse fromSmile = new ObjectMapper(new SmileFactory()).findAndRegisterModules()
+                .readValue(smile, PopularityResponse.class);
+        assertEquals(301, fromProtobuf.items().get(0).id());
+        assertEquals(fromSmile.items().get(0).score(), fromProtobuf.items().get(0).score());
+        assertEquals(fromSmile.items().get(0).updatedAt().toInstant(), fromProtobuf.items().get(0).updatedAt().toInstant());
+    }
+
+    @Test
+    void shouldStreamExportAsNdjson() throws Exception {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("export-me"))
+                .withQueryParam("per_page", equalTo("100"))
+                .willReturn(okJson("{\"total_count\":2,\"items\":[{" +
+                        "\"id\": 401, \"full_name\": \"e/1\", \"html_url\": \"https://x/e1\", \"language\": \"Java\", \"stargazers_count\": 1, \"forks_count\": 1, \"updated_at\": \"2024-01-01T00:00:00Z\"},{" +
+                        "\"id\": 402, \"full_name\": \"e/2\", \"html_url\": \"https://x/e2\", \"language\": \"Java\", \"stargazers_count\": 9, \"forks_count\": 9, \"updated_at\": \"2024-01-01T00:00:00Z\"}]}")));
+
+        var started = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/repos/popularity/export")
+                        .param("query", "export-me")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(401, objectMapper.readTree(lines[0]).get("id").asInt());
+        assertEquals(402, objectMapper.readTree(lines[1]).get("id").asInt());
+    }
 }
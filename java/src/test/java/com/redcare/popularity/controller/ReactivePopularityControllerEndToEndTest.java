@@ -0,0 +1,116 @@
+package com.redcare.popularity.controller;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.compatibility-verifier.enabled=false"
+})
+@ActiveProfiles("reactive")
+class ReactivePopularityControllerEndToEndTest {
+
+    private static WireMockServer wm;
+
+    @BeforeAll
+    static void setup() {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wm.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void shouldPointWebClientToWireMock(DynamicPropertyRegistry registry) {
+        registry.add("github.apiBaseUrl", () -> wm.baseUrl());
+        registry.add("github.token", () -> "test-token-123");
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void reset() {
+        wm.resetAll();
+    }
+
+    @Test
+    void shouldReturnSortedItemsAndForwardHeadersWhenSearching() {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .withQueryParam("q", equalTo("framework language:Java created:>=2024-01-01"))
+                .withQueryParam("per_page", equalTo("20"))
+                .withQueryParam("page", equalTo("1"))
+                .willReturn(okJson("{" +
+                        "\"total_count\":2,\n" +
+                        "\"items\":[{" +
+                        "\"id\": 101, \"full_name\": \"a/a\", \"html_url\": \"https://x/1\", \"language\": \"Java\", \"stargazers_count\": 10, \"forks_count\": 5, \"updated_at\": \"2024-01-01T00:00:00Z\"},{" +
+                        "\"id\": 102, \"full_name\": \"b/b\", \"html_url\": \"https://x/2\", \"language\": \"Java\", \"stargazers_count\": 5, \"forks_count\": 10, \"updated_at\": \"2024-01-01T00:00:00Z\"}" +
+                        "]}")));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/repos/popularity")
+                        .queryParam("language", "Java")
+                        .queryParam("created_after", "2024-01-01")
+                        .queryParam("query", "framework")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalCount").isEqualTo(2)
+                .jsonPath("$.count").isEqualTo(2)
+                .jsonPath("$.items[0].id").isEqualTo(101)
+                .jsonPath("$.items[1].id").isEqualTo(102);
+
+        wm.verify(getRequestedFor(urlPathEqualTo("/search/repositories"))
+                .withHeader("Accept", equalTo("application/vnd.github+json"))
+                .withHeader("X-GitHub-Api-Version", equalTo("2022-11-28"))
+                .withHeader("Authorization", equalTo("Bearer test-token-123"))
+                .withHeader("User-Agent", equalTo("redcare-popularity/0.1")));
+    }
+
+    @Test
+    void shouldReturn429WhenUpstreamIs403RateLimitedBody() {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .willReturn(aResponse().withStatus(403).withBody("{\"message\":\"API rate limit exceeded\"}")));
+
+        webTestClient.get().uri("/repos/popularity?query=x")
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectBody().jsonPath("$.status").isEqualTo(429);
+    }
+
+    @Test
+    void shouldReturn502WhenUpstreamFails() {
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .willReturn(aResponse().withStatus(500)));
+
+        webTestClient.get().uri("/repos/popularity?query=x")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectBody().jsonPath("$.status").isEqualTo(502);
+    }
+
+    @Test
+    void shouldReturn400WhenPerPageIsOutOfRange() {
+        webTestClient.get().uri("/repos/popularity?per_page=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+    }
+}
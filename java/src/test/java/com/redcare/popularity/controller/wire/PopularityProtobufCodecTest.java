@@ -0,0 +1,45 @@
+package com.redcare.popularity.controller.wire;
+
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityProtobufCodecTest {
+
+    private final OffsetDateTime updated = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void shouldRoundTripResponse() {
+        var response = new PopularityResponse(1234, 2, List.of(
+                new RepositoryResponse(1, "a/a", "https://x/1", "Java", 10, 5, updated, 17.5),
+                new RepositoryResponse(2, "b/ü", "https://x/2", null, 5, 10, updated, 15.5,
+                        OffsetDateTime.parse("2024-02-01T10:00:00Z"))));
+
+        assertEquals(response, PopularityProtobufCodec.decode(PopularityProtobufCodec.encode(response)));
+    }
+
+    @Test
+    void shouldSkipUnknownFields() {
+        byte[] known = PopularityProtobufCodec.encode(new PopularityResponse(7, 0, List.of()));
+        // field 15, varint 1, then field 14, length-delimited "xy"
+        byte[] extended = new byte[known.length + 6];
+        System.arraycopy(known, 0, extended, 0, known.length);
+        System.arraycopy(new byte[]{0x78, 0x01, 0x72, 0x02, 'x', 'y'}, 0, extended, known.length, 6);
+
+        assertEquals(7, PopularityProtobufCodec.decode(extended).totalCount());
+    }
+
+    @Test
+    void shouldRejectTruncatedMessage() {
+        byte[] bytes = PopularityProtobufCodec.encode(new PopularityResponse(1, 1, List.of(
+                new RepositoryResponse(1, "a/a", "https://x/1", "Java", 10, 5, updated, 17.5))));
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> PopularityProtobufCodec.decode(truncated));
+    }
+}
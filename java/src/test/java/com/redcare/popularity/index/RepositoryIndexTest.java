@@ -0,0 +1,163 @@
+package com.redcare.popularity.index;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryIndexTest {
+
+    private static final OffsetDateTime UPDATED = OffsetDateTime.of(2024, 5, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong millis = new AtomicLong(Instant.parse("2024-06-01T00:00:00Z").toEpochMilli());
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    };
+    private RepositoryIndex index;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (index != null) index.close();
+    }
+
+    @Test
+    void shouldFilterByLanguageAndCreatedDate() {
+        index = open(100);
+        index.record(List.of(
+                item(1, "Java", "2023-01-10"),
+                item(2, "java", "2024-02-01"),
+                item(3, "Go", "2024-03-01"),
+                item(4, "Java", null)));
+
+        assertEquals(List.of(1, 2, 4), ids(index.match("JAVA", null)));
+        assertEquals(List.of(2), ids(index.match("Java", LocalDate.of(2024, 1, 1))));
+        assertEquals(List.of(2, 3), ids(index.match(null, LocalDate.of(2024, 1, 1))));
+        assertEquals(0, index.match("Rust", null).size());
+    }
+
+    @Test
+    void shouldMatchLanguageCaseInsensitivelyUnderTurkishLocale() {
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            index = open(100);
+            index.record(List.of(item(1, "Kotlin", null), item(2, "KOTLIN", null)));
+
+            assertEquals(List.of(1, 2), ids(index.match("KOTLIN", null)));
+            assertEquals(List.of(1, 2), ids(index.match("kotlin", null)));
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    void shouldUpdateRecordInPlaceAndMoveItBetweenLanguages() {
+        index = open(100);
+        index.record(List.of(item(1, "Java", "2024-01-01")));
+        millis.addAndGet(5_000);
+        index.record(List.of(new GitHubRepoItem(1, "o/r1", "https://x/1", "Kotlin", 99, 7, UPDATED.plusDays(1),
+                OffsetDateTime.parse("2024-01-01T00:00:00Z"))));
+
+        assertEquals(0, index.match("Java", null).size());
+        RepositoryIndex.Matches kotlin = index.match("Kotlin", null);
+        assertEquals(1, kotlin.size());
+        assertEquals(99, kotlin.stars()[0]);
+        RepositoryIndex.Indexed read = index.read(kotlin.slots()[0]);
+        assertEquals("Kotlin", read.item().language());
+        assertEquals(UPDATED.plusDays(1), read.item().updatedAt());
+        assertEquals(Instant.ofEpochMilli(millis.get()), read.indexedAt());
+        assertEquals(1, index.stats().records());
+    }
+
+    @Test
+    void shouldNotRewriteUnchangedItemsWithinRefreshInterval() {
+        index = open(100);
+        index.record(List.of(item(1, "Java", "2024-01-01")));
+        Instant first = index.read(0).indexedAt();
+
+        millis.addAndGet(30_000);
+        index.record(List.of(item(1, "Java", "2024-01-01")));
+        assertEquals(first, index.read(0).indexedAt());
+
+        millis.addAndGet(31_000);
+        index.record(List.of(item(1, "Java", "2024-01-01")));
+        assertEquals(Instant.ofEpochMilli(millis.get()), index.read(0).indexedAt());
+    }
+
+    @Test
+    void shouldReloadRecordsAndIndexesAfterReopen() throws Exception {
+        index = open(100);
+        index.record(List.of(item(1, "Java", "2024-01-01"), item(2, "Go", "2024-02-01")));
+        index.close();
+
+        index = open(100);
+
+        assertEquals(2, index.stats().records());
+        assertEquals(List.of(2), ids(index.match("go", LocalDate.of(2024, 1, 15))));
+        GitHubRepoItem reloaded = index.read(index.match("Java", null).slots()[0]).item();
+        assertEquals(new GitHubRepoItem(1, "o/r1", "https://github.com/o/r1", "Java", 10, 1, UPDATED,
+                OffsetDateTime.parse("2024-01-01T00:00:00Z")), reloaded);
+    }
+
+    @Test
+    void shouldDropNewRepositoriesWhenFull() {
+        index = open(2);
+        index.record(List.of(item(1, "Java", null), item(2, "Java", null), item(3, "Java", null)));
+
+        assertEquals(2, index.stats().records());
+        assertEquals(1, index.stats().dropped());
+        assertEquals(List.of(1, 2), ids(index.match(null, null)));
+    }
+
+    @Test
+    void shouldMatchNothingWhenDisabled() {
+        RepositoryIndex disabled = RepositoryIndex.disabled();
+        disabled.record(List.of(item(1, "Java", null)));
+
+        assertFalse(disabled.enabled());
+        assertEquals(0, disabled.match(null, null).size());
+    }
+
+    private RepositoryIndex open(int maxRecords) {
+        return new RepositoryIndex(true, dir, maxRecords, 60_000, clock);
+    }
+
+    private List<Integer> ids(RepositoryIndex.Matches matches) {
+        return Arrays.stream(matches.slots()).mapToObj(slot -> (int) index.read(slot).item().id()).sorted().toList();
+    }
+
+    private static GitHubRepoItem item(long id, String language, String createdDay) {
+        OffsetDateTime created = createdDay == null ? null : LocalDate.parse(createdDay).atStartOfDay().atOffset(ZoneOffset.UTC);
+        return new GitHubRepoItem(id, "o/r" + id, "https://github.com/o/r" + id, language, (int) id * 10, (int) id, UPDATED, created);
+    }
+}
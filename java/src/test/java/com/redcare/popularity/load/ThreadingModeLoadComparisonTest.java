@@ -0,0 +1,183 @@
+package com.redcare.popularity.load;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.redcare.popularity.PopularityApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares platform-thread and virtual-thread Tomcat under a slow GitHub stub.
+ * Opt-in: {@code mvn test -Dtest=ThreadingModeLoadComparisonTest -Dload=true} (virtual run needs Java 21+).
+ * Tunables: {@code load.requests}, {@code load.upstreamDelayMillis}, {@code load.tomcatThreads}. With
+ * {@code -DargLine=-Djdk.tracePinnedThreads=short} the virtual run fails if any carrier thread was pinned.
+ */
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class ThreadingModeLoadComparisonTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 1000);
+    private static final int UPSTREAM_DELAY_MILLIS = Integer.getInteger("load.upstreamDelayMillis", 1000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("load.tomcatThreads", 200);
+
+    private static WireMockServer wm;
+
+    @BeforeAll
+    static void startStub() {
+        wm = new WireMockServer(WireMockConfiguration.wireMockConfig()
+                .dynamicPort()
+                .containerThreads(REQUESTS + 50)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(64));
+        wm.start();
+        wm.stubFor(get(urlPathEqualTo("/search/repositories"))
+                .willReturn(okJson("{\"total_count\":1,\"items\":[{\"id\":1,\"full_name\":\"a/a\",\"html_url\":\"https://x/1\","
+                        + "\"language\":\"Java\",\"stargazers_count\":10,\"forks_count\":5,\"updated_at\":\"2024-01-01T00:00:00Z\"}]}")
+                        .withFixedDelay(UPSTREAM_DELAY_MILLIS)));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        wm.stop();
+    }
+
+    @Test
+    void shouldCompareThroughputOfPlatformAndVirtualThreads() throws Exception {
+        LoadResult platform = run(false);
+        System.out.println(platform);
+
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+");
+        PrintStream out = System.out;
+        var traces = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(new TeeOutputStream(out, traces), true));
+        LoadResult virtual;
+        try {
+            virtual = run(true);
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println(virtual);
+
+        assertTrue(virtual.errors() <= platform.errors());
+        if (System.getProperty("jdk.tracePinnedThreads") != null) {
+            // each pinning stack is reported once, with "<== monitors" on the frames holding a monitor
+            String report = traces.toString(StandardCharsets.UTF_8);
+            assertFalse(report.contains("<== monitors"), "carrier threads were pinned:\n" + report);
+        }
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        var app = new SpringApplicationBuilder(PopularityApplication.class);
+        if (virtualThreads) {
+            // the profile as deployed, including its transport settings
+            app.profiles("virtual");
+        }
+        // arguments, not default properties, so they win over application.yml
+        try (ConfigurableApplicationContext ctx = app.run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.cloud.compatibility-verifier.enabled=false",
+                "--github.apiBaseUrl=" + wm.baseUrl(),
+                "--github.cache.enabled=false",
+                "--github.rateLimit.initialBudget=1000000",
+                // compares thread models, so nothing is shed or queued in front of the stub
+                "--github.concurrencyLimit.enabled=false",
+                "--github.http.maxRequestsPerRoute=" + REQUESTS,
+                "--logging.level.root=WARN")) {
+            int port = ctx.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return fire(virtualThreads ? "virtual" : "platform", port);
+        }
+    }
+
+    private LoadResult fire(String mode, int port) {
+        ExecutorService clientPool = Executors.newFixedThreadPool(32);
+        HttpClient http = HttpClient.newBuilder().executor(clientPool).connectTimeout(Duration.ofSeconds(10)).build();
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<Long>> calls = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                // Distinct queries so neither the cache nor the coalescer collapses the load.
+                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + port + "/repos/popularity?query=load" + i))
+                        .timeout(Duration.ofSeconds(60)).GET().build();
+                long sent = System.nanoTime();
+                calls.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(r -> r.statusCode() == 200 ? System.nanoTime() - sent : -1L)
+                        .exceptionally(ex -> -1L));
+            }
+            long[] latencies = calls.stream().mapToLong(CompletableFuture::join).toArray();
+            long wallNanos = System.nanoTime() - start;
+            long errors = Arrays.stream(latencies).filter(l -> l < 0).count();
+            long[] ok = Arrays.stream(latencies).filter(l -> l >= 0).sorted().toArray();
+            return new LoadResult(mode, REQUESTS, errors, wallNanos / 1_000_000,
+                    percentileMillis(ok, 0.50), percentileMillis(ok, 0.99));
+        } finally {
+            clientPool.shutdownNow();
+        }
+    }
+
+    private static long percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) return -1;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1_000_000;
+    }
+
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+        }
+    }
+
+    private record LoadResult(String mode, int requests, long errors, long wallMillis, long p50Millis, long p99Millis) {
+        @Override
+        public String toString() {
+            return String.format("%-8s requests=%d errors=%d wall=%dms throughput=%.1f req/s p50=%dms p99=%dms",
+                    mode, requests, errors, wallMillis, requests * 1000.0 / wallMillis, p50Millis, p99Millis);
+        }
+    }
+}
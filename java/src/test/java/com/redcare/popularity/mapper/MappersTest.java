@@ -57,4 +57,23 @@ class MappersTest {
         assertEquals(now, domain.updatedAt());
         assertEquals(12.35, domain.score());
     }
+
+    @Test
+    void shouldMapUpstreamItemDirectlyToResponseDto() {
+        var now = OffsetDateTime.now();
+        var upstream = new com.redcare.popularity.client.model.GitHubRepoItem(
+                5, "y/y", "https://x/y", "Go", 4, 2, now
+        );
+
+        RepositoryResponse dto = Mappers.toRepositoryResponse(upstream, 3.33);
+
+        assertEquals(5, dto.id());
+        assertEquals("y/y", dto.name());
+        assertEquals("https://x/y", dto.htmlUrl());
+        assertEquals("Go", dto.language());
+        assertEquals(4, dto.stars());
+        assertEquals(2, dto.forks());
+        assertEquals(now, dto.updatedAt());
+        assertEquals(3.33, dto.score());
+    }
 }
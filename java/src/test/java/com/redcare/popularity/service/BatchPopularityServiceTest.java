@@ -0,0 +1,77 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.controller.dto.BatchResponse;
+import com.redcare.popularity.controller.dto.BatchSpec;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchPopularityServiceTest {
+
+    private PopularityService popularityService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        popularityService = mock(PopularityService.class);
+        executor = Executors.newFixedThreadPool(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResultsInSpecOrderWithPerSpecErrors() {
+        when(popularityService.searchAndScore(any(), any(), eq("ok"), anyInt(), anyInt()))
+                .thenReturn(new PopularityResponse(1, 0, List.of()));
+        when(popularityService.searchAndScore(any(), any(), eq("limited"), anyInt(), anyInt()))
+                .thenThrow(new GitHubApiException(429, "rate limited", null));
+        var service = new BatchPopularityService(popularityService, executor, 2);
+
+        BatchResponse response = service.searchAndScoreAll(List.of(spec("ok"), spec("limited"), spec("ok")));
+
+        assertEquals(2, response.succeeded());
+        assertEquals(1, response.failed());
+        assertEquals(List.of(0, 1, 2), response.results().stream().map(r -> r.index()).toList());
+        assertNotNull(response.results().get(0).result());
+        assertEquals(429, response.results().get(1).error().status());
+        assertNull(response.results().get(1).result());
+    }
+
+    @Test
+    void shouldNotExceedPerBatchConcurrency() {
+        var inFlight = new AtomicInteger();
+        var maxSeen = new AtomicInteger();
+        when(popularityService.searchAndScore(any(), any(), any(), anyInt(), anyInt())).thenAnswer(inv -> {
+            maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return new PopularityResponse(0, 0, List.of());
+        });
+        var service = new BatchPopularityService(popularityService, executor, 3);
+
+        BatchResponse response = service.searchAndScoreAll(IntStream.range(0, 20).mapToObj(i -> spec("q" + i)).toList());
+
+        assertEquals(20, response.succeeded());
+        assertTrue(maxSeen.get() <= 3, "max in flight was " + maxSeen.get());
+        verify(popularityService, times(20)).searchAndScore(any(), any(), any(), eq(20), eq(1));
+    }
+
+    private static BatchSpec spec(String query) {
+        return new BatchSpec(null, null, query, null, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.redcare.popularity.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.index.RepositoryIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private GitHubClient gitHubClient;
+    private ExecutorService executor;
+    private ExportService service;
+
+    @BeforeEach
+    void setUp() {
+        gitHubClient = mock(GitHubClient.class);
+        executor = Executors.newFixedThreadPool(2);
+        service = new ExportService(new GitHubSearchCache(gitHubClient, false, 100, 60_000, 10_000, 600_000),
+                new ScoringService(), executor, RepositoryIndex.disabled(), objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldStreamEveryPageUntilAShortOne() throws Exception {
+        stubPage(1, 250, 100);
+        stubPage(2, 250, 100);
+        stubPage(3, 250, 50);
+        var out = new ByteArrayOutputStream();
+
+        long written = service.stream(service.open("Java", null, null), out);
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(250, written);
+        assertEquals(250, lines.size());
+        assertEquals(1, lines.get(0).get("id").asLong());
+        assertTrue(lines.get(0).has("score"));
+        verify(gitHubClient, times(3)).searchRepositories(anyString(), eq(100), anyInt());
+    }
+
+    @Test
+    void shouldStopAtGitHubResultCap() throws Exception {
+        for (int page = 1; page <= 10; page++) {
+            stubPage(page, 50_000, 100);
+        }
+
+        long written = service.stream(service.open(null, null, "java"), OutputStream.nullOutputStream());
+
+        assertEquals(1_000, written);
+        verify(gitHubClient, never()).searchRepositories(anyString(), eq(100), eq(11));
+    }
+
+    @Test
+    void shouldStopFetchingWhenClientDisconnects() throws Exception {
+        for (int page = 1; page <= 5; page++) {
+            stubPage(page, 500, 100);
+        }
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        ExportService.Export export = service.open("Java", null, null);
+        assertThrows(IOException.class, () -> service.stream(export, disconnected));
+
+        verify(gitHubClient, never()).searchRepositories(anyString(), eq(100), eq(3));
+    }
+
+    @Test
+    void shouldEndWithErrorLineWhenALaterPageFails() throws Exception {
+        stubPage(1, 300, 100);
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(2)))
+                .thenThrow(new GitHubApiException(502, "boom", null));
+        var out = new ByteArrayOutputStream();
+
+        long written = service.stream(service.open("Java", null, null), out);
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(100, written);
+        assertEquals(101, lines.size());
+        assertEquals(502, lines.get(100).get("error").get("status").asInt());
+    }
+
+    private void stubPage(int page, long totalCount, int size) {
+        List<GitHubRepoItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = (long) (page - 1) * 100 + i + 1;
+            items.add(new GitHubRepoItem(id, "r/" + id, "https://x/" + id, "Java", (int) id, 1, now));
+        }
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(page)))
+                .thenReturn(new GitHubSearchResponse(totalCount, items));
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
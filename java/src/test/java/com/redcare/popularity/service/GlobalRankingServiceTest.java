@@ -0,0 +1,84 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.index.RepositoryIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GlobalRankingServiceTest {
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+    private GitHubClient gitHubClient;
+    private ExecutorService executor;
+    private GlobalRankingService service;
+
+    @BeforeEach
+    void setUp() {
+        gitHubClient = mock(GitHubClient.class);
+        executor = Executors.newFixedThreadPool(4);
+        service = new GlobalRankingService(
+                new GitHubSearchCache(gitHubClient, false, 100, 60_000, 10_000, 600_000),
+                new ScoringService(), executor, RepositoryIndex.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnGlobalTopKAcrossPages() {
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(1)))
+                .thenReturn(new GitHubSearchResponse(6, List.of(item(1, 10), item(2, 500), item(3, 30))));
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(2)))
+                .thenReturn(new GitHubSearchResponse(6, List.of(item(4, 1000), item(5, 1), item(6, 200))));
+
+        PopularityResponse result = service.topK("Java", null, null, 3, 2);
+
+        assertEquals(6, result.totalCount());
+        assertEquals(List.of(4L, 2L, 6L), result.items().stream().map(RepositoryResponse::id).toList());
+        verify(gitHubClient).searchRepositories("language:Java", 100, 1);
+        verify(gitHubClient).searchRepositories("language:Java", 100, 2);
+    }
+
+    @Test
+    void shouldDeduplicateItemsThatShiftBetweenPages() {
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(1)))
+                .thenReturn(new GitHubSearchResponse(3, List.of(item(1, 100), item(2, 50))));
+        when(gitHubClient.searchRepositories(anyString(), eq(100), eq(2)))
+                .thenReturn(new GitHubSearchResponse(3, List.of(item(2, 50), item(3, 10))));
+
+        PopularityResponse result = service.topK(null, null, "x", 5, 2);
+
+        assertEquals(List.of(1L, 2L, 3L), result.items().stream().map(RepositoryResponse::id).toList());
+    }
+
+    @Test
+    void shouldPropagateUpstreamFailure() {
+        when(gitHubClient.searchRepositories(anyString(), anyInt(), anyInt()))
+                .thenThrow(new GitHubApiException(429, "rate limited", null));
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> service.topK(null, null, "x", 5, 3));
+        assertEquals(429, ex.getStatusCode());
+    }
+
+    private GitHubRepoItem item(long id, int stars) {
+        return new GitHubRepoItem(id, "r/" + id, "https://x/" + id, "Java", stars, 0, now);
+    }
+}
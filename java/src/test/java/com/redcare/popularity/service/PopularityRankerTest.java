@@ -0,0 +1,85 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.domain.PopularityResult;
+import com.redcare.popularity.domain.RepositoryScore;
+import com.redcare.popularity.mapper.Mappers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityRankerTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+    private final ScoringService scoringService = new ScoringService(clock);
+    private final PopularityRanker ranker = new PopularityRanker(scoringService);
+    private final OffsetDateTime now = OffsetDateTime.now(clock);
+
+    @Test
+    void shouldKeepUpstreamOrderForEqualScores() {
+        var items = List.of(
+                new GitHubRepoItem(1, "a/a", "u1", "Java", 10, 0, now),
+                new GitHubRepoItem(2, "b/b", "u2", "Java", 20, 0, now),
+                new GitHubRepoItem(3, "c/c", "u3", "Java", 10, 0, now)
+        );
+
+        PopularityResponse result = ranker.rank(new GitHubSearchResponse(3, items));
+
+        assertEquals(List.of(2L, 1L, 3L), result.items().stream().map(RepositoryResponse::id).toList());
+        assertEquals(3, result.count());
+    }
+
+    @Test
+    void shouldMatchDomainMappingChainOnLargePage() {
+        var items = IntStream.range(0, 100)
+                .mapToObj(i -> new GitHubRepoItem(i, "r/" + i, "u" + i, i % 3 == 0 ? null : "Java",
+                        (i * 7919) % 5_000, (i * 104_729) % 900, now.minusDays(i % 90)))
+                .toList();
+        var page = new GitHubSearchResponse(1_000, items);
+
+        List<RepositoryScore> legacy = items.stream()
+                .map(it -> Mappers.toRepositoryScore(it, scoringService.computeScore(it.stargazersCount(), it.forksCount(), it.updatedAt())))
+                .sorted(Comparator.comparingDouble(RepositoryScore::score).reversed())
+                .toList();
+        PopularityResponse expected = Mappers.toPopularityResponse(new PopularityResult(1_000, legacy));
+
+        assertEquals(expected, ranker.rank(page));
+    }
+
+    @Test
+    void shouldHandleEmptyPage() {
+        PopularityResponse result = ranker.rank(new GitHubSearchResponse(0, List.of()));
+
+        assertEquals(0, result.count());
+        assertTrue(result.items().isEmpty());
+    }
+
+    @Test
+    void shouldRecordStageTimersAndItemCount() {
+        var registry = new SimpleMeterRegistry();
+        var metered = new PopularityRanker(scoringService, registry);
+        var items = List.of(
+                new GitHubRepoItem(1, "a/a", "u1", "Java", 10, 0, now),
+                new GitHubRepoItem(2, "b/b", "u2", "Java", 20, 0, now)
+        );
+
+        metered.rank(new GitHubSearchResponse(2, items));
+
+        for (String stage : List.of("score", "sort", "map")) {
+            assertEquals(1, registry.get("popularity.rank").tags("source", "live", "stage", stage).timer().count());
+        }
+        assertEquals(2.0, registry.get("popularity.response.items").tags("source", "live").summary().totalAmount());
+    }
+}
@@ -1,13 +1,23 @@
 package com.redcare.popularity.service;
 
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.cache.HotQueryTracker;
+import com.redcare.popularity.cache.PeerCache;
 import com.redcare.popularity.client.GitHubClient;
 import com.redcare.popularity.client.model.GitHubRepoItem;
 import com.redcare.popularity.client.model.GitHubSearchResponse;
 import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.index.RepositoryIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
 
@@ -24,7 +34,10 @@ class PopularityServiceTest {
     void setUp() {
         gitHubClient = mock(GitHubClient.class);
         scoringService = new ScoringService();
-        popularityService = new PopularityService(gitHubClient, scoringService);
+        popularityService = new PopularityService(
+                new GitHubSearchCache(gitHubClient, false, 100, 60_000, 10_000, 600_000), new PopularityRanker(scoringService),
+                new SearchCoalescer(1_000), RepositoryIndex.disabled(),
+                new HotQueryTracker(1024, 64), StaleFallback.disabled(), PeerCache.disabled());
     }
 
     @Test
@@ -72,6 +85,13 @@ class PopularityServiceTest {
         assertEquals("reactive", qCaptor.getValue());
     }
 
+    @Test
+    void shouldAppendUpdatedSinceAtSecondPrecisionWhenGiven() {
+        String q = PopularityService.buildQuery("Java", null, null, Instant.parse("2024-06-01T09:59:00.750Z"));
+
+        assertEquals("language:Java updated:>=2024-06-01T09:59:00Z", q);
+    }
+
     @Test
     void shouldMapSortAndRoundScoresWhenComputingPopularity() {
         OffsetDateTime now = OffsetDateTime.now();
@@ -103,4 +123,30 @@ class PopularityServiceTest {
         assertEquals(1, roundingRes.items().size());
         assertEquals(3.33, roundingRes.items().get(0).score(), 1e-9);
     }
+
+    @Test
+    void shouldRankFromIndexWithoutCallingUpstream(@TempDir Path dir) throws Exception {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime created = OffsetDateTime.parse("2024-03-01T00:00:00Z");
+        try (var index = new RepositoryIndex(true, dir, 100, 60_000, Clock.systemUTC())) {
+            index.record(List.of(
+                    new GitHubRepoItem(1, "a/a", "https://x/1", "Java", 50, 10, now, created),
+                    new GitHubRepoItem(2, "b/b", "https://x/2", "Java", 5, 1, now, created),
+                    new GitHubRepoItem(3, "c/c", "https://x/3", "Java", 30, 20, now, created),
+                    new GitHubRepoItem(4, "d/d", "https://x/4", "Go", 999, 99, now, created)));
+            var service = new PopularityService(
+                    new GitHubSearchCache(gitHubClient, false, 100, 60_000, 10_000, 600_000), new PopularityRanker(scoringService),
+                    new SearchCoalescer(1_000), index, new HotQueryTracker(1024, 64),
+                    StaleFallback.disabled(), PeerCache.disabled());
+
+            PopularityResponse first = service.searchAndScoreFromIndex("Java", LocalDate.of(2024, 1, 1), 2, 1, null);
+            PopularityResponse second = service.searchAndScoreFromIndex("Java", LocalDate.of(2024, 1, 1), 2, 2, null);
+
+            assertEquals(3, first.totalCount());
+            assertEquals(List.of(1L, 3L), first.items().stream().map(RepositoryResponse::id).toList());
+            assertEquals(List.of(2L), second.items().stream().map(RepositoryResponse::id).toList());
+            assertNotNull(first.items().get(0).indexedAt());
+            verifyNoInteractions(gitHubClient);
+        }
+    }
 }
@@ -1,10 +1,19 @@
 package com.redcare.popularity.service;
 
+import com.redcare.popularity.config.ScoringProperties;
+import com.redcare.popularity.exception.InvalidQueryException;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ScoringServiceTest {
 
@@ -45,4 +54,85 @@ class ScoringServiceTest {
         // 0.6*10 + 0.3*5 + 0.1*100 = 6 + 1.5 + 10 = 17.5
         assertEquals(17.5, score, 1e-9);
     }
+
+    @Test
+    void shouldMatchPerItemScoreWhenScoringInBatch() {
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+        ScoringService fixed = new ScoringService(clock);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        OffsetDateTime[] updated = {
+                now, now.minusHours(23), now.minusHours(25), now.minusDays(30), now.minusDays(400).plusSeconds(1),
+                now.plusDays(3), now.minusDays(59).withOffsetSameInstant(ZoneOffset.ofHours(-7))
+        };
+        int[] stars = {0, 10, 250, 3, 90_000, 7, 1};
+        int[] forks = {0, 5, 40, 0, 12_000, 1, 2};
+        long[] epochSeconds = new long[updated.length];
+        for (int i = 0; i < updated.length; i++) {
+            epochSeconds[i] = updated[i].toEpochSecond();
+        }
+
+        double[] scores = new double[updated.length];
+        fixed.computeScores(stars, forks, epochSeconds, scores);
+
+        for (int i = 0; i < updated.length; i++) {
+            assertEquals(fixed.computeScore(stars[i], forks[i], updated[i]), scores[i], 0.0, "item " + i);
+        }
+    }
+
+    @Test
+    void shouldRejectShorterInputArraysWhenScoringInBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> scoring.computeScores(new int[1], new int[2], new long[2], new double[2]));
+    }
+
+    @Test
+    void shouldMatchBuiltInKernelBitForBitWhenUsingCompiledBuiltInProfile() {
+        Random random = new Random(42);
+        long now = Instant.parse("2024-06-01T12:00:00Z").getEpochSecond();
+        int n = 1_000;
+        int[] stars = new int[n];
+        int[] forks = new int[n];
+        long[] updated = new long[n];
+        for (int i = 0; i < n; i++) {
+            stars[i] = random.nextInt(500_000);
+            forks[i] = random.nextInt(50_000);
+            updated[i] = now - random.nextInt(3_000 * 86_400) + 86_400;
+        }
+        double[] expected = new double[n];
+        double[] actual = new double[n];
+
+        scoring.computeScores(stars, forks, updated, expected, now);
+        ScoringProfile.BUILT_IN.compile("built-in").score(stars, forks, updated, actual, now);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]), "item " + i);
+        }
+    }
+
+    @Test
+    void shouldApplyTransformsAndExponentialDecayWhenProfileSelected() {
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+        var profile = new ScoringProfile(1.0, 2.0, 0.5, ScoringProfile.Transform.LOG, ScoringProfile.Transform.LINEAR,
+                10.0, ScoringProfile.Decay.EXPONENTIAL);
+        var service = new ScoringService(clock, new ScoringProperties(null, Map.of("log", profile)));
+        double[] scores = new double[1];
+
+        service.computeScores(new int[]{99}, new int[]{3}, new long[]{clock.instant().minusSeconds(20 * 86_400).getEpochSecond()},
+                scores, service.profile("log"));
+
+        // log1p(99) + 2*3 + 0.5 * 100 * 2^(-20/10)
+        assertEquals(Math.log1p(99) + 6 + 12.5, scores[0], 1e-9);
+        assertSame(service.profile(null), service.profile(" "));
+    }
+
+    @Test
+    void shouldRejectUnknownProfileWhenRequested() {
+        assertThrows(InvalidQueryException.class, () -> scoring.profile("missing"));
+    }
+
+    @Test
+    void shouldFailStartupWhenDefaultProfileIsNotConfigured() {
+        assertThrows(IllegalStateException.class,
+                () -> new ScoringService(Clock.systemUTC(), new ScoringProperties("missing", null)));
+    }
 }
@@ -0,0 +1,101 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.SearchKey;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCoalescerTest {
+
+    private final SearchKey key = SearchKey.of("language:Java", 20, 1);
+
+    @Test
+    void shouldShareOneExecutionAcrossConcurrentCallers() throws Exception {
+        var coalescer = new SearchCoalescer(5_000);
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        var response = new PopularityResponse(1, 0, List.of());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PopularityResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> coalescer.execute(key, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return response;
+                })));
+            }
+            while (coalescer.stats().coalesced() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<PopularityResponse> f : futures) {
+                assertSame(response, f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.stats().executed());
+        assertEquals(7, coalescer.stats().coalesced());
+        assertEquals(0, coalescer.stats().inFlight());
+    }
+
+    @Test
+    void shouldNotPoisonKeyAfterLeaderFailure() {
+        var coalescer = new SearchCoalescer(5_000);
+
+        assertThrows(GitHubApiException.class, () -> coalescer.execute(key, () -> {
+            throw new GitHubApiException(502, "boom", null);
+        }));
+        PopularityResponse ok = coalescer.execute(key, () -> new PopularityResponse(0, 0, List.of()));
+
+        assertNotNull(ok);
+        assertEquals(2, coalescer.stats().executed());
+    }
+
+    @Test
+    void shouldTimeOutFollowerWhenLeaderIsSlow() throws Exception {
+        var coalescer = new SearchCoalescer(50);
+        var release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> coalescer.execute(key, () -> {
+                await(release);
+                return new PopularityResponse(0, 0, List.of());
+            }));
+            while (coalescer.stats().inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+
+            GitHubApiException ex = assertThrows(GitHubApiException.class,
+                    () -> coalescer.execute(key, () -> fail("follower must not execute")));
+            assertEquals(504, ex.getStatusCode());
+            assertEquals(1, coalescer.stats().timeouts());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
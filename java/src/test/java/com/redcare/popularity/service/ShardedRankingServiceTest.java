@@ -0,0 +1,142 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.GitHubSearchCache;
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.GitHubTokenScheduler;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.RepositoryResponse;
+import com.redcare.popularity.index.RepositoryIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedRankingServiceTest {
+
+    private static final String ROOT = "language:Java created:2024-01-01..2024-01-08";
+    private static final String FIRST_HALF = "language:Java created:2024-01-01..2024-01-04";
+    private static final String SECOND_HALF = "language:Java created:2024-01-05..2024-01-08";
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-08T12:00:00Z"), ZoneOffset.UTC);
+    private final OffsetDateTime updated = OffsetDateTime.parse("2024-01-08T00:00:00Z");
+    private GitHubClient gitHubClient;
+    private GitHubTokenScheduler tokenScheduler;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        gitHubClient = mock(GitHubClient.class);
+        tokenScheduler = mock(GitHubTokenScheduler.class);
+        when(tokenScheduler.stats()).thenReturn(new GitHubTokenScheduler.SchedulerStats(1, 0, 0, 0));
+        when(tokenScheduler.searchResource()).thenReturn(GitHubTokenScheduler.Resource.SEARCH);
+        when(tokenScheduler.availableBudget(GitHubTokenScheduler.Resource.SEARCH)).thenReturn(30L);
+        executor = Executors.newFixedThreadPool(4);
+        when(gitHubClient.searchRepositories(ROOT, 100, 1))
+                .thenReturn(new GitHubSearchResponse(1_500, List.of(item(1, 40), item(2, 30))));
+        when(gitHubClient.searchRepositories(FIRST_HALF, 100, 1))
+                .thenReturn(new GitHubSearchResponse(150, List.of(item(1, 40), item(3, 900))));
+        when(gitHubClient.searchRepositories(FIRST_HALF, 100, 2))
+                .thenReturn(new GitHubSearchResponse(150, List.of(item(4, 5))));
+        when(gitHubClient.searchRepositories(SECOND_HALF, 100, 1))
+                .thenReturn(new GitHubSearchResponse(50, List.of(item(2, 30), item(5, 700))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSplitOversizedRangeAndRankAcrossShards() {
+        ShardedRankingService service = service(60);
+
+        PopularityResponse result = service.topK("Java", LocalDate.of(2024, 1, 1), null, 10, 10, null);
+
+        assertEquals(List.of(3L, 5L, 1L, 2L, 4L), result.items().stream().map(RepositoryResponse::id).toList());
+        assertEquals(200, result.totalCount());
+        verify(gitHubClient).searchRepositories(FIRST_HALF, 100, 2);
+        verify(gitHubClient, never()).searchRepositories(SECOND_HALF, 100, 2);
+        verify(gitHubClient, never()).searchRepositories(ROOT, 100, 2);
+        assertEquals(4, service.stats().requests());
+        assertEquals(2, service.stats().shards());
+    }
+
+    @Test
+    void shouldRankOversizedShardAsIsWhenBudgetIsSpent() {
+        ShardedRankingService service = service(1);
+
+        PopularityResponse result = service.topK("Java", LocalDate.of(2024, 1, 1), null, 10, 10, null);
+
+        assertEquals(List.of(1L, 2L), result.items().stream().map(RepositoryResponse::id).toList());
+        verify(gitHubClient, times(1)).searchRepositories(anyString(), anyInt(), anyInt());
+        assertEquals(1, service.stats().truncated());
+    }
+
+    @Test
+    void shouldSplitAsFarAsBudgetAllowsWhenFullSplitDoesNotFit() {
+        when(gitHubClient.searchRepositories(anyString(), anyInt(), anyInt()))
+                .thenReturn(new GitHubSearchResponse(0, List.of()));
+        when(gitHubClient.searchRepositories(ROOT, 100, 1))
+                .thenReturn(new GitHubSearchResponse(5_000, List.of(item(1, 40))));
+        ShardedRankingService service = service(4);
+
+        service.topK("Java", LocalDate.of(2024, 1, 1), null, 10, 10, null);
+
+        verify(gitHubClient).searchRepositories("language:Java created:2024-01-01..2024-01-02", 100, 1);
+        verify(gitHubClient).searchRepositories("language:Java created:2024-01-03..2024-01-05", 100, 1);
+        verify(gitHubClient).searchRepositories("language:Java created:2024-01-06..2024-01-08", 100, 1);
+        assertEquals(4, service.stats().requests());
+        assertEquals(0, service.stats().truncated());
+    }
+
+    @Test
+    void shouldCutAtSampledCreationDatesSoPartsHoldSimilarCounts() {
+        var shard = new ShardedRankingService.Shard(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8));
+        List<LocalDate> sample = List.of(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 6),
+                LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 7));
+
+        assertEquals(List.of(
+                new ShardedRankingService.Shard(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 6)),
+                new ShardedRankingService.Shard(LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 7)),
+                new ShardedRankingService.Shard(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 8))),
+                shard.split(3, sample));
+        assertEquals(List.of(
+                new ShardedRankingService.Shard(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 4)),
+                new ShardedRankingService.Shard(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 8))),
+                shard.split(2, List.of()));
+    }
+
+    @Test
+    void shouldSpreadPagesAcrossShardsBeforeGoingDeeper() {
+        var a = new ShardedRankingService.Shard(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), 1_000);
+        var b = new ShardedRankingService.Shard(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 2), 250);
+
+        List<ShardedRankingService.Task> tasks = ShardedRankingService.remainingPages(List.of(a, b), 10, 5);
+
+        assertEquals(List.of(new ShardedRankingService.Task(a, 2), new ShardedRankingService.Task(b, 2),
+                new ShardedRankingService.Task(a, 3), new ShardedRankingService.Task(b, 3),
+                new ShardedRankingService.Task(a, 4)), tasks);
+    }
+
+    private ShardedRankingService service(int maxRequests) {
+        return new ShardedRankingService(new GitHubSearchCache(gitHubClient, false, 100, 60_000, 10_000, 600_000),
+                new ScoringService(clock), executor, RepositoryIndex.disabled(), tokenScheduler, clock, maxRequests);
+    }
+
+    private GitHubRepoItem item(long id, int stars) {
+        return new GitHubRepoItem(id, "r/" + id, "https://x/" + id, "Java", stars, 0, updated);
+    }
+}
@@ -0,0 +1,240 @@
+package com.redcare.popularity.service;
+
+import com.redcare.popularity.cache.LastKnownGoodStore;
+import com.redcare.popularity.cache.SearchKey;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.exception.GitHubApiException;
+import com.redcare.popularity.exception.PeerServedStaleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleFallbackTest {
+
+    private final SearchKey key = SearchKey.of("language:Java", 20, 1);
+    private final PopularityResponse good = new PopularityResponse(1, 0, List.of());
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-06-01T00:00:00Z"));
+    private ExecutorService executor;
+    private LastKnownGoodStore store;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        store = new LastKnownGoodStore(true, 100, 86_400_000, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRethrowWhenNothingIsStored() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> fallback.execute(key, () -> {
+            throw new GitHubApiException(429, "rate limited", null);
+        }));
+        assertEquals(429, ex.getStatusCode());
+    }
+
+    @Test
+    void shouldNotServeAnotherSearchWhoseTextSpellsTheProfile() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        fallback.execute(SearchKey.of("language:Java #profile=fresh", 20, 1), () -> good);
+
+        assertThrows(GitHubApiException.class, () -> fallback.execute(key.withProfile("fresh"), () -> {
+            throw new GitHubApiException(429, "rate limited", null);
+        }));
+    }
+
+    @Test
+    void shouldPassOnOwnersStaleAnswerWithoutRememberingIt() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            throw new PeerServedStaleException(good, Duration.ofSeconds(90), "circuit_open");
+        });
+
+        assertSame(good, served.response());
+        assertEquals(Duration.ofSeconds(90), served.age());
+        assertEquals(StaleFallback.StaleReason.CIRCUIT_OPEN, served.staleReason());
+        assertNull(store.get(key));
+        assertEquals(1, fallback.stats().circuitOpen());
+    }
+
+    @Test
+    void shouldKeepOwnLastKnownGoodWhenYoungerThanOwners() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        PopularityResponse ours = new PopularityResponse(2, 0, List.of());
+        fallback.execute(key, () -> ours);
+        clock.advance(Duration.ofSeconds(10));
+
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            throw new PeerServedStaleException(good, Duration.ofSeconds(90), "rate_limited");
+        });
+
+        assertSame(ours, served.response());
+        assertEquals(Duration.ofSeconds(10), served.age());
+        assertEquals(StaleFallback.StaleReason.RATE_LIMITED, served.staleReason());
+    }
+
+    @Test
+    void shouldServeLastKnownGoodWithAgeWhenRateLimited() throws Exception {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        fallback.execute(key, () -> good);
+        clock.advance(Duration.ofSeconds(42));
+
+        var revalidated = new CountDownLatch(2);
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            revalidated.countDown();
+            throw new GitHubApiException(429, "rate limited", null);
+        });
+
+        assertTrue(served.stale());
+        assertSame(good, served.response());
+        assertEquals(StaleFallback.StaleReason.RATE_LIMITED, served.staleReason());
+        assertEquals(Duration.ofSeconds(42), served.age());
+        assertTrue(revalidated.await(5, TimeUnit.SECONDS), "a background revalidation must run");
+        assertEquals(1, fallback.stats().rateLimited());
+    }
+
+    @Test
+    void shouldServeLastKnownGoodWhenUpstreamExceedsLatencyBudget() throws Exception {
+        var fallback = new StaleFallback(store, executor, 50);
+        fallback.execute(key, () -> good);
+
+        var release = new CountDownLatch(1);
+        var newer = new PopularityResponse(2, 0, List.of());
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            await(release);
+            return newer;
+        });
+
+        assertEquals(StaleFallback.StaleReason.SLOW_UPSTREAM, served.staleReason());
+        assertSame(good, served.response());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.get(key).response() != newer && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertSame(newer, store.get(key).response());
+    }
+
+    @Test
+    void shouldSearchOnCallingThreadWhenLivePoolIsSaturated() throws Exception {
+        var pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        try {
+            var fallback = new StaleFallback(store, pool, 1_000);
+            fallback.execute(key, () -> good);
+            var release = new CountDownLatch(1);
+            var busy = new CountDownLatch(1);
+            pool.execute(() -> {
+                busy.countDown();
+                await(release);
+            });
+            busy.await(5, TimeUnit.SECONDS);
+
+            var newer = new PopularityResponse(2, 0, List.of());
+            StaleFallback.Served served = fallback.execute(key, () -> newer);
+
+            assertFalse(served.stale());
+            assertSame(newer, served.response());
+            assertSame(newer, store.get(key).response());
+            assertEquals(0, fallback.stats().slowUpstream());
+            release.countDown();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldServeLastKnownGoodWhenInlineSearchFailsOnSaturatedPool() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        fallback.execute(key, () -> good);
+        executor.shutdown();
+
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            throw new GitHubApiException(503, "service unavailable", null);
+        });
+
+        assertSame(good, served.response());
+        assertEquals(StaleFallback.StaleReason.UPSTREAM_UNAVAILABLE, served.staleReason());
+    }
+
+    @Test
+    void shouldLabelUpstreamUnavailableSeparatelyFromOpenCircuit() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        fallback.execute(key, () -> good);
+
+        StaleFallback.Served served = fallback.execute(key, () -> {
+            throw new GitHubApiException(503, "service unavailable", null);
+        });
+
+        assertEquals(StaleFallback.StaleReason.UPSTREAM_UNAVAILABLE, served.staleReason());
+        assertEquals(1, fallback.stats().upstreamUnavailable());
+        assertEquals(0, fallback.stats().circuitOpen());
+    }
+
+    @Test
+    void shouldNotMaskClientErrors() {
+        var fallback = new StaleFallback(store, executor, 1_000);
+        fallback.execute(key, () -> good);
+
+        GitHubApiException ex = assertThrows(GitHubApiException.class, () -> fallback.execute(key, () -> {
+            throw new GitHubApiException(422, "invalid query", null);
+        }));
+        assertEquals(422, ex.getStatusCode());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.redcare.popularity.tracking;
+
+import com.redcare.popularity.client.GitHubClient;
+import com.redcare.popularity.client.model.GitHubRepoItem;
+import com.redcare.popularity.client.model.GitHubSearchResponse;
+import com.redcare.popularity.controller.dto.PopularityResponse;
+import com.redcare.popularity.controller.dto.TrackedQueryRequest;
+import com.redcare.popularity.controller.dto.TrackedQueryResponse;
+import com.redcare.popularity.exception.InvalidQueryException;
+import com.redcare.popularity.exception.TrackedQueryNotFoundException;
+import com.redcare.popularity.service.ScoringService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrackedQueryServiceTest {
+
+    private static final String FULL = "language:Java";
+    private static final String DELTA = "language:Java updated:>=2024-06-01T09:59:00Z";
+    private static final OffsetDateTime SYNCED = OffsetDateTime.parse("2024-06-01T10:00:00Z");
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+    private GitHubClient client;
+    private TrackedQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(GitHubClient.class);
+        service = new TrackedQueryService(client, new ScoringService(clock), clock,
+                true, 2, 1000, 2, 60_000, 21_600_000, 3_600_000);
+        when(client.searchRepositories(eq(FULL), eq(100), anyInt())).thenReturn(new GitHubSearchResponse(3, List.of(
+                repo(1, 100, SYNCED), repo(2, 50, SYNCED.minusDays(1)), repo(3, 10, SYNCED.minusDays(2)))));
+    }
+
+    @Test
+    void shouldMergeOnlyChangedRepositoriesAndReRankThem() {
+        TrackedQueryResponse tracked = service.register(new TrackedQueryRequest("Java", null, null));
+        assertEquals(Instant.parse("2024-06-01T10:00:00Z"), tracked.highWaterMark());
+
+        when(client.searchRepositories(eq(DELTA), eq(100), eq(1))).thenReturn(new GitHubSearchResponse(2, List.of(
+                repo(3, 500, SYNCED.plusHours(1)), repo(4, 20, SYNCED.plusMinutes(30)))));
+        service.refreshAll();
+
+        PopularityResponse page = service.page(tracked.id(), 10, 1);
+        assertEquals(List.of(3L, 1L, 2L, 4L), page.items().stream().map(r -> r.id()).toList());
+        assertEquals(4, page.totalCount());
+        assertEquals(Instant.parse("2024-06-01T11:00:00Z"), service.describe(tracked.id()).highWaterMark());
+        verify(client, times(1)).searchRepositories(eq(FULL), eq(100), anyInt());
+        assertEquals(1, service.stats().deltaSyncs());
+        assertEquals(2, service.stats().mergedItems());
+    }
+
+    @Test
+    void shouldResyncWhenDeltaExceedsPageBudget() {
+        TrackedQueryResponse tracked = service.register(new TrackedQueryRequest("Java", null, null));
+        when(client.searchRepositories(eq(DELTA), eq(100), eq(1))).thenReturn(new GitHubSearchResponse(5_000, List.of()));
+
+        service.refreshAll();
+
+        verify(client, times(2)).searchRepositories(eq(FULL), eq(100), eq(1));
+        assertEquals(2, service.stats().fullSyncs());
+        assertEquals(0, service.stats().deltaSyncs());
+        assertEquals(3, service.page(tracked.id(), 10, 1).count());
+    }
+
+    @Test
+    void shouldRejectUnknownIdsAndTooManyQueries() {
+        when(client.searchRepositories(anyString(), eq(100), anyInt())).thenReturn(new GitHubSearchResponse(0, List.of()));
+        service.register(new TrackedQueryRequest("Java", null, null));
+        service.register(new TrackedQueryRequest("Go", null, null));
+
+        assertThrows(InvalidQueryException.class, () -> service.register(new TrackedQueryRequest("Rust", null, null)));
+        assertThrows(TrackedQueryNotFoundException.class, () -> service.page("missing", 10, 1));
+        assertEquals(2, service.stats().tracked());
+    }
+
+    @Test
+    void shouldCountOnlyRepositoriesCreatedSinceFullSyncInTotal() {
+        service = new TrackedQueryService(client, new ScoringService(clock), clock,
+                true, 2, 2, 2, 60_000, 21_600_000, 3_600_000);
+        TrackedQueryResponse tracked = service.register(new TrackedQueryRequest("Java", null, null));
+        assertEquals(2, tracked.held());
+
+        // repository 3 was trimmed by maxItems and is back after an update; 5 is new since the sync
+        GitHubRepoItem created = new GitHubRepoItem(5, "o/r5", "https://x/5", "Java", 20, 0,
+                SYNCED.plusHours(2).plusMinutes(30), SYNCED.plusHours(2).plusMinutes(30));
+        when(client.searchRepositories(startsWith(FULL + " updated:"), eq(100), eq(1))).thenReturn(
+                new GitHubSearchResponse(2, List.of(repo(3, 10, SYNCED.plusHours(1)), created)));
+        service.refreshAll();
+        service.refreshAll();
+
+        assertEquals(4, service.describe(tracked.id()).totalCount());
+        assertEquals(2, service.describe(tracked.id()).held());
+    }
+
+    @Test
+    void shouldTrackSameSearchOnceWhenRegisteredConcurrently() throws Exception {
+        when(client.searchRepositories(eq(FULL), eq(100), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return new GitHubSearchResponse(1, List.of(repo(1, 100, SYNCED)));
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            var start = new CountDownLatch(1);
+            Callable<TrackedQueryResponse> register = () -> {
+                start.await();
+                return service.register(new TrackedQueryRequest("Java", null, null));
+            };
+            Future<TrackedQueryResponse> first = pool.submit(register);
+            Future<TrackedQueryResponse> second = pool.submit(register);
+            start.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS).id(), second.get(5, TimeUnit.SECONDS).id());
+            assertEquals(1, service.stats().tracked());
+            verify(client, times(1)).searchRepositories(eq(FULL), eq(100), eq(1));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static GitHubRepoItem repo(long id, int stars, OffsetDateTime updatedAt) {
+        return new GitHubRepoItem(id, "o/r" + id, "https://x/" + id, "Java", stars, 0, updatedAt);
+    }
+}